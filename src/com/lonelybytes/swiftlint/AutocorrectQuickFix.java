@@ -0,0 +1,88 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.Result;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Collections;
+
+// "swiftlint autocorrect" for the whole file. Stateless: one instance is shared by all descriptors, and the
+// SwiftLint invocation is resolved when the fix is applied.
+class AutocorrectQuickFix implements LocalQuickFix {
+    static final AutocorrectQuickFix INSTANCE = new AutocorrectQuickFix();
+
+    private static final String NAME = "Autocorrect";
+
+    private AutocorrectQuickFix() {
+    }
+
+    @Nls
+    @NotNull
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Nls
+    @NotNull
+    @Override
+    public String getFamilyName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+
+    @Override
+    public void applyFix(@NotNull Project aProject, @NotNull ProblemDescriptor aDescriptor) {
+        PsiElement element = aDescriptor.getPsiElement();
+        PsiFile file = element == null ? null : element.getContainingFile();
+        if (file == null || file.getVirtualFile() == null) {
+            return;
+        }
+
+        SwiftLintSettings.Snapshot settings = SwiftLintSettings.snapshot(aProject);
+        SwiftLintCapabilities capabilities = SwiftLintCapabilities.of(settings.appPath);
+        String[] autocorrectOptions = capabilities.autocorrectOptions(SwiftLintConfigWatcher.getInstance(aProject).configPath(), file.getVirtualFile().getPath());
+        if (!capabilities.available || autocorrectOptions == null) {
+            return;
+        }
+
+        WriteCommandAction writeCommandAction = new WriteCommandAction(aProject, file) {
+            @Override
+            protected void run(@NotNull Result aResult) throws Throwable {
+                autocorrect(settings.appPath, autocorrectOptions, file);
+            }
+        };
+
+        writeCommandAction.execute();
+    }
+
+    private static void autocorrect(String aToolPath, String[] aOptions, @NotNull PsiFile aFile) {
+        SwiftLintInspection.saveAll();
+        ApplicationManager.getApplication().invokeLater(() -> {
+            try {
+                try (LintOutput output = new LintOutput()) {
+                    Utils.executeCommand(aToolPath, aOptions, null, null, output);
+                }
+                LocalFileSystem.getInstance().refreshFiles(Collections.singletonList(aFile.getVirtualFile()));
+            } catch (IOException aE) {
+                Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "Error", "Can't quick-fix.\nIOException: " + aE.getMessage(), NotificationType.ERROR));
+            }
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.openapi.ui.popup.PopupStep;
+import com.intellij.openapi.ui.popup.util.BaseListPopupStep;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.ui.EditorNotifications;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ChangeLintPolicyAction extends AnAction {
+    private static final String AUTOMATIC = "Automatic";
+
+    @Override
+    public void update(AnActionEvent aEvent) {
+        VirtualFile file = aEvent.getData(CommonDataKeys.VIRTUAL_FILE);
+        aEvent.getPresentation().setEnabledAndVisible(aEvent.getProject() != null && file != null && "swift".equalsIgnoreCase(file.getExtension()));
+    }
+
+    @Override
+    public void actionPerformed(AnActionEvent aEvent) {
+        Project project = aEvent.getProject();
+        VirtualFile file = aEvent.getData(CommonDataKeys.VIRTUAL_FILE);
+        Document document = file == null ? null : FileDocumentManager.getInstance().getDocument(file);
+        if (project == null || document == null) {
+            return;
+        }
+
+        LintPolicyEngine.Decision decision = LintPolicyEngine.getInstance(project).decide(file, document);
+
+        List<String> values = new ArrayList<>();
+        values.add(AUTOMATIC);
+        for (LintPolicy policy : LintPolicy.values()) {
+            values.add(policy.displayName);
+        }
+
+        String title = "SwiftLint: " + decision.policy.displayName + (decision.reason.isEmpty() ? "" : " (" + decision.reason + ")");
+        JBPopupFactory.getInstance().createListPopup(new BaseListPopupStep<String>(title, values) {
+            @Override
+            public PopupStep onChosen(String aSelectedValue, boolean aFinalChoice) {
+                LintPolicy policy = null;
+                for (LintPolicy value : LintPolicy.values()) {
+                    if (value.displayName.equals(aSelectedValue)) {
+                        policy = value;
+                    }
+                }
+
+                setOverride(project, file, policy);
+                return FINAL_CHOICE;
+            }
+        }).showInBestPositionFor(aEvent.getDataContext());
+    }
+
+    static void setOverride(@NotNull Project aProject, @NotNull VirtualFile aFile, @Nullable LintPolicy aPolicy) {
+        LintPolicyEngine.getInstance(aProject).setOverride(aFile, aPolicy);
+        EditorNotifications.getInstance(aProject).updateNotifications(aFile);
+
+        PsiFile psiFile = PsiManager.getInstance(aProject).findFile(aFile);
+        if (psiFile != null) {
+            DaemonCodeAnalyzer.getInstance(aProject).restart(psiFile);
+        }
+    }
+}
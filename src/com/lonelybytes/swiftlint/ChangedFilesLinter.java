@@ -0,0 +1,185 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.diff.comparison.ComparisonManager;
+import com.intellij.diff.comparison.ComparisonPolicy;
+import com.intellij.diff.comparison.DiffTooBigException;
+import com.intellij.diff.fragments.LineFragment;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.DumbProgressIndicator;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.vcs.VcsException;
+import com.intellij.openapi.vcs.changes.Change;
+import com.intellij.openapi.vcs.changes.ContentRevision;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+// Lints the Swift files of a set of VCS changes in parallel. Results for unchanged content come from ResultCache,
+// so files already linted in the editor cost nothing. Optionally keeps only violations on added or modified lines.
+class ChangedFilesLinter {
+    private static final int VIOLATIONS_IN_REPORT = 20;
+
+    static class FileResult {
+        final String path;
+        final List<Violation> violations;
+
+        FileResult(String aPath, List<Violation> aViolations) {
+            path = aPath;
+            violations = aViolations;
+        }
+    }
+
+    static class Result {
+        final List<FileResult> files;
+        final RuleCatalog catalog;
+        final int lintedFileCount;
+        final int violationCount;
+        final int errorCount;
+
+        Result(@NotNull List<FileResult> aFiles, @NotNull RuleCatalog aCatalog, int aLintedFileCount) {
+            files = aFiles;
+            catalog = aCatalog;
+            lintedFileCount = aLintedFileCount;
+
+            int violationCount = 0;
+            int errorCount = 0;
+            for (FileResult file : aFiles) {
+                violationCount += file.violations.size();
+                for (Violation violation : file.violations) {
+                    if (violation.severity == Violation.SEVERITY_ERROR) {
+                        errorCount++;
+                    }
+                }
+            }
+            this.violationCount = violationCount;
+            this.errorCount = errorCount;
+        }
+
+        // Notification text: counts plus the first violations as "File.swift:12: rule_id: message"
+        @NotNull
+        String report() {
+            StringBuilder result = new StringBuilder(String.format("%d violation(s), %d error(s) in %d of %d file(s)",
+                    violationCount, errorCount, files.size(), lintedFileCount));
+
+            int reported = 0;
+            for (FileResult file : files) {
+                String fileName = file.path.substring(file.path.lastIndexOf('/') + 1);
+                for (Violation violation : file.violations) {
+                    if (reported++ == VIOLATIONS_IN_REPORT) {
+                        return result.append("<br>...").toString();
+                    }
+                    result.append("<br>").append(fileName).append(":").append(violation.line).append(": ")
+                            .append(catalog.name(violation.ruleId)).append(": ").append(violation.message);
+                }
+            }
+            return result.toString();
+        }
+    }
+
+    private ChangedFilesLinter() {
+    }
+
+    @Nullable
+    static Result lint(@NotNull Project aProject, @NotNull Collection<Change> aChanges, boolean aChangedLinesOnly,
+                       @Nullable ProgressIndicator aIndicator) {
+        SwiftLintSettings.Snapshot settings = SwiftLintSettings.snapshot(aProject);
+        SwiftLintConfigWatcher configWatcher = SwiftLintConfigWatcher.getInstance(aProject);
+        String swiftLintConfigPath = configWatcher.configPath();
+        if (settings.disableWhenNoConfigPresent && swiftLintConfigPath == null) {
+            return null;
+        }
+
+        SwiftLintCapabilities capabilities = SwiftLintCapabilities.of(settings.appPath);
+        if (!capabilities.available) {
+            return null;
+        }
+
+        RuleCatalog catalog = RuleCatalog.of(capabilities);
+        SwiftLintConfig config = configWatcher.config();
+        ProjectFileIndex fileIndex = ProjectFileIndex.SERVICE.getInstance(aProject);
+        ViolationBaseline baseline = ViolationBaseline.getInstance(aProject);
+        ViolationAggregateIndex aggregateIndex = ViolationAggregateIndex.getInstance(aProject);
+
+        List<Callable<FileResult>> tasks = new ArrayList<>();
+        for (Change change : aChanges) {
+            ContentRevision after = change.getAfterRevision();
+            VirtualFile file = change.getVirtualFile();
+            if (after == null || file == null || !"swift".equalsIgnoreCase(file.getExtension()) || config.isExcluded(file.getPath()) ||
+                    !ApplicationManager.getApplication().runReadAction((Computable<Boolean>) () -> file.isValid() && fileIndex.isInContent(file))) {
+                continue;
+            }
+
+            ContentRevision before = aChangedLinesOnly ? change.getBeforeRevision() : null;
+            tasks.add(() -> lintFile(capabilities, catalog, baseline, aggregateIndex, swiftLintConfigPath, file.getPath(), before, after, aIndicator));
+        }
+
+        if (aIndicator != null) {
+            aIndicator.setIndeterminate(false);
+            aIndicator.setText("Linting " + tasks.size() + " changed file(s)");
+        }
+
+        List<FileResult> files = new ArrayList<>();
+        for (FileResult file : LintExecutor.invokeAll(tasks, aIndicator)) {
+            if (file != null && !file.violations.isEmpty()) {
+                files.add(file);
+            }
+        }
+
+        return new Result(files, catalog, tasks.size());
+    }
+
+    private static FileResult lintFile(@NotNull SwiftLintCapabilities aCapabilities, @NotNull RuleCatalog aCatalog, @NotNull ViolationBaseline aBaseline,
+                                       @NotNull ViolationAggregateIndex aAggregateIndex,
+                                       @Nullable String aConfigPath, @NotNull String aFilePath,
+                                       @Nullable ContentRevision aBefore, @NotNull ContentRevision aAfter,
+                                       @Nullable ProgressIndicator aIndicator) throws VcsException, IOException {
+        String text = aAfter.getContent();
+        if (text == null) {
+            return null;
+        }
+
+        List<Violation> violations = aBaseline.filter(aFilePath, text, SwiftLintRunner.lint(aCapabilities, aConfigPath, aFilePath, text), aCatalog);
+        aAggregateIndex.update(aFilePath, violations, aCatalog);
+
+        String beforeText = aBefore == null ? null : aBefore.getContent();
+        if (beforeText != null && !violations.isEmpty()) {
+            BitSet changedLines = changedLines(beforeText, text, aIndicator);
+            if (changedLines != null) {
+                List<Violation> filtered = new ArrayList<>();
+                for (Violation violation : violations) {
+                    if (violation.line > 0 && changedLines.get(violation.line - 1)) {
+                        filtered.add(violation);
+                    }
+                }
+                violations = filtered;
+            }
+        }
+
+        return new FileResult(aFilePath, Violation.limit(violations, LintOutput.maxViolationsPerFile(), aCatalog));
+    }
+
+    // 0-based lines of aAfter that were added or modified; null when the diff is too big to compute
+    @Nullable
+    private static BitSet changedLines(@NotNull String aBefore, @NotNull String aAfter, @Nullable ProgressIndicator aIndicator) {
+        List<LineFragment> fragments;
+        try {
+            fragments = ComparisonManager.getInstance().compareLines(aBefore, aAfter, ComparisonPolicy.DEFAULT,
+                    aIndicator == null ? DumbProgressIndicator.INSTANCE : aIndicator);
+        } catch (DiffTooBigException ex) {
+            return null;
+        }
+
+        BitSet result = new BitSet();
+        for (LineFragment fragment : fragments) {
+            result.set(fragment.getStartLine2(), fragment.getEndLine2());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,142 @@
+package com.lonelybytes.swiftlint;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Content hash of a SwiftLint config, including the configs it references via parent_config/child_config.
+// Reference lines themselves are not hashed, so the hash doesn't depend on where the project is checked out.
+final class ConfigFingerprint {
+    private static final String NO_CONFIG = "none";
+    private static final int MAX_DEPTH = 4;
+    private static final Pattern REFERENCE_PATTERN = Pattern.compile("(?m)^\\s*(?:parent_config|child_config)\\s*:\\s*['\"]?([^'\"#\\n]+?)['\"]?\\s*$");
+
+    private static class Entry {
+        final long modificationStamp;
+        final String hash;
+        final String content;
+
+        Entry(long aModificationStamp, String aHash, String aContent) {
+            modificationStamp = aModificationStamp;
+            hash = aHash;
+            content = aContent;
+        }
+    }
+
+    private static final ConcurrentMap<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    private ConfigFingerprint() {
+    }
+
+    @NotNull
+    static String of(@Nullable String aConfigPath) {
+        return aConfigPath == null ? NO_CONFIG : of(new File(aConfigPath), 0);
+    }
+
+    private static String of(File aFile, int aDepth) {
+        Entry entry = entry(aFile);
+        if (entry == null) {
+            return NO_CONFIG;
+        }
+
+        if (aDepth >= MAX_DEPTH) {
+            return entry.hash;
+        }
+
+        StringBuilder result = new StringBuilder(entry.hash);
+        for (File referenced : references(aFile, entry)) {
+            result.append(of(referenced, aDepth + 1));
+        }
+
+        return aDepth == 0 && result.length() > entry.hash.length() ? sha256(result.toString().getBytes(StandardCharsets.UTF_8)) : result.toString();
+    }
+
+    // Normalized paths of the config and every config it references, as far as the fingerprint follows them
+    @NotNull
+    static Set<String> chain(@Nullable String aConfigPath) {
+        Set<String> result = new LinkedHashSet<>();
+        if (aConfigPath != null) {
+            chain(new File(aConfigPath), 0, result);
+        }
+        return result;
+    }
+
+    private static void chain(File aFile, int aDepth, Set<String> aResult) {
+        if (!aResult.add(aFile.toPath().toAbsolutePath().normalize().toString())) {
+            return;
+        }
+
+        Entry entry = entry(aFile);
+        if (entry == null || aDepth >= MAX_DEPTH) {
+            return;
+        }
+
+        for (File referenced : references(aFile, entry)) {
+            chain(referenced, aDepth + 1, aResult);
+        }
+    }
+
+    private static List<File> references(File aFile, Entry aEntry) {
+        List<File> result = new ArrayList<>();
+        Matcher matcher = REFERENCE_PATTERN.matcher(aEntry.content);
+        while (matcher.find()) {
+            File referenced = new File(matcher.group(1).trim());
+            if (!referenced.isAbsolute()) {
+                referenced = new File(aFile.getParentFile(), referenced.getPath());
+            }
+            result.add(referenced);
+        }
+        return result;
+    }
+
+    private static Entry entry(File aFile) {
+        String path = aFile.getAbsolutePath();
+        long modificationStamp = aFile.lastModified();
+        if (modificationStamp == 0) {
+            return null;
+        }
+
+        Entry entry = ENTRIES.get(path);
+        if (entry != null && entry.modificationStamp == modificationStamp) {
+            return entry;
+        }
+
+        try {
+            String content = new String(Files.readAllBytes(aFile.toPath()), StandardCharsets.UTF_8);
+            String hashedContent = REFERENCE_PATTERN.matcher(content).replaceAll("");
+            entry = new Entry(modificationStamp, sha256(hashedContent.getBytes(StandardCharsets.UTF_8)), content);
+            ENTRIES.put(path, entry);
+            return entry;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    @NotNull
+    static String sha256(@NotNull byte[] aBytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(aBytes);
+            StringBuilder result = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.lonelybytes.swiftlint;
 
-import com.intellij.execution.configurations.PathEnvironmentVariableUtil;
 import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
 import com.intellij.openapi.options.Configurable;
 import com.intellij.openapi.options.ConfigurationException;
@@ -18,7 +17,6 @@ import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
-import java.io.File;
 
 public class Configuration implements Configurable {
     static final String KEY_SWIFTLINT = "SwiftLint";
@@ -29,6 +27,9 @@ public class Configuration implements Configurable {
     private TextFieldWithBrowseButton browser;
     private JBCheckBox quickFixCheckbox;
     private JBCheckBox disableWhenNoConfigPresentCheckbox;
+    private JTextField remoteCacheUrlTextField;
+    private JTextField outputMemoryLimitTextField;
+    private JTextField maxViolationsTextField;
 
     private ConfigurationModifiedListener listener = new ConfigurationModifiedListener(this);
 
@@ -76,6 +77,24 @@ public class Configuration implements Configurable {
         disableWhenNoConfigPresentCheckbox.addChangeListener(listener);
         panel.add(disableWhenNoConfigPresentCheckbox);
 
+        JPanel remoteCacheRow = new JPanel(new HorizontalLayout(20, SwingConstants.CENTER));
+        remoteCacheUrlTextField = new JTextField(30);
+        remoteCacheUrlTextField.getDocument().addDocumentListener(listener);
+        remoteCacheRow.add(new JLabel("Shared result cache URL (optional):"));
+        remoteCacheRow.add(remoteCacheUrlTextField);
+        panel.add(remoteCacheRow);
+
+        JPanel limitsRow = new JPanel(new HorizontalLayout(20, SwingConstants.CENTER));
+        outputMemoryLimitTextField = new JTextField(6);
+        outputMemoryLimitTextField.getDocument().addDocumentListener(listener);
+        maxViolationsTextField = new JTextField(6);
+        maxViolationsTextField.getDocument().addDocumentListener(listener);
+        limitsRow.add(new JLabel("Output kept in memory (KB):"));
+        limitsRow.add(outputMemoryLimitTextField);
+        limitsRow.add(new JLabel("Violations per file:"));
+        limitsRow.add(maxViolationsTextField);
+        panel.add(limitsRow);
+
         reset();
 
         return panel;
@@ -88,40 +107,36 @@ public class Configuration implements Configurable {
 
     @Override
     public void apply() throws ConfigurationException {
-        SwiftLintInspection.State state = SwiftLintInspection.STATE;
-        if (state == null) {
-            state = new SwiftLintInspection.State();
-        }
-
-        state.setAppPath(browser.getText());
-        state.setQuickFixEnabled(quickFixCheckbox.isSelected());
-        state.setDisableWhenNoConfigPresent(disableWhenNoConfigPresentCheckbox.isSelected());
+        SwiftLintSettings.getInstance().update(
+                browser.getText(),
+                quickFixCheckbox.isSelected(),
+                disableWhenNoConfigPresentCheckbox.isSelected(),
+                remoteCacheUrlTextField.getText(),
+                positiveNumber(outputMemoryLimitTextField, "Output kept in memory"),
+                positiveNumber(maxViolationsTextField, "Violations per file")
+        );
 
         modified = false;
     }
 
     @Override
     public void reset() {
-        SwiftLintInspection.State state = SwiftLintInspection.STATE;
+        SwiftLintSettings.SettingsState state = SwiftLintSettings.getInstance().getState();
 
-        String appPath = state.getAppPath();
-        
-        if (appPath == null || appPath.isEmpty()) {
-            File swiftLintFilePath = PathEnvironmentVariableUtil.findInPath("swiftlint");
-            if (swiftLintFilePath != null) {
-                browser.getTextField().setText(swiftLintFilePath.getAbsolutePath());
-            } else {
-                browser.getTextField().setText(DEFAULT_SWIFTLINT_PATH);
-            }
+        String appPath = state == null ? null : state.appPath;
 
-            quickFixCheckbox.setSelected(true);
-            disableWhenNoConfigPresentCheckbox.setSelected(false);
+        if (appPath == null || appPath.isEmpty()) {
+            browser.getTextField().setText(SwiftLintSettings.defaultAppPath());
         } else {
             browser.getTextField().setText(appPath);
-            quickFixCheckbox.setSelected(state.isQuickFixEnabled());
-            disableWhenNoConfigPresentCheckbox.setSelected(state.isDisableWhenNoConfigPresent());
         }
 
+        quickFixCheckbox.setSelected(state == null || state.quickFixEnabled);
+        disableWhenNoConfigPresentCheckbox.setSelected(state != null && state.disableWhenNoConfigPresent);
+        remoteCacheUrlTextField.setText(state == null || state.remoteCacheUrl == null ? "" : state.remoteCacheUrl);
+        outputMemoryLimitTextField.setText(String.valueOf(state == null ? LintOutput.DEFAULT_MEMORY_LIMIT_KB : state.outputMemoryLimitKb));
+        maxViolationsTextField.setText(String.valueOf(state == null ? LintOutput.DEFAULT_MAX_VIOLATIONS_PER_FILE : state.maxViolationsPerFile));
+
         modified = false;
     }
 
@@ -130,6 +145,21 @@ public class Configuration implements Configurable {
         browser.getTextField().getDocument().removeDocumentListener(listener);
         quickFixCheckbox.removeChangeListener(listener);
         disableWhenNoConfigPresentCheckbox.removeChangeListener(listener);
+        remoteCacheUrlTextField.getDocument().removeDocumentListener(listener);
+        outputMemoryLimitTextField.getDocument().removeDocumentListener(listener);
+        maxViolationsTextField.getDocument().removeDocumentListener(listener);
+    }
+
+    private static int positiveNumber(JTextField aTextField, String aName) throws ConfigurationException {
+        try {
+            int result = Integer.parseInt(aTextField.getText().trim());
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException ex) {
+            // Reported below
+        }
+        throw new ConfigurationException(aName + " must be a positive number");
     }
 
     private static class ConfigurationModifiedListener implements DocumentListener, ChangeListener {
@@ -0,0 +1,107 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+// Lints every Swift file of the project and records the violations in the baseline, so only new ones are reported
+public class CreateBaselineAction extends AnAction {
+    @Override
+    public void update(AnActionEvent aEvent) {
+        aEvent.getPresentation().setEnabled(aEvent.getProject() != null && aEvent.getProject().getBasePath() != null);
+    }
+
+    @Override
+    public void actionPerformed(AnActionEvent aEvent) {
+        Project project = aEvent.getProject();
+        if (project == null) {
+            return;
+        }
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Creating SwiftLint baseline", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator aIndicator) {
+                createBaseline(project, aIndicator);
+            }
+        });
+    }
+
+    private static void createBaseline(@NotNull Project aProject, @NotNull ProgressIndicator aIndicator) {
+        SwiftLintSettings.Snapshot settings = SwiftLintSettings.snapshot(aProject);
+        SwiftLintCapabilities capabilities = SwiftLintCapabilities.of(settings.appPath);
+        if (!capabilities.available) {
+            return;
+        }
+
+        SwiftLintConfigWatcher configWatcher = SwiftLintConfigWatcher.getInstance(aProject);
+        String swiftLintConfigPath = configWatcher.configPath();
+        RuleCatalog catalog = RuleCatalog.of(capabilities);
+        ViolationBaseline baseline = ViolationBaseline.getInstance(aProject);
+
+        List<VirtualFile> files = ProjectLinter.swiftFiles(aProject, configWatcher.config());
+
+        List<Callable<long[]>> tasks = new ArrayList<>();
+        for (VirtualFile file : files) {
+            tasks.add(() -> {
+                String text = ProjectLinter.text(file);
+                List<Violation> violations = SwiftLintRunner.lint(capabilities, swiftLintConfigPath, file.getPath(), text);
+                return baseline.fingerprints(baseline.relativePath(file.getPath()), text, violations, catalog);
+            });
+        }
+
+        aIndicator.setIndeterminate(false);
+        aIndicator.setText("Linting " + files.size() + " file(s)");
+
+        List<long[]> results = LintExecutor.invokeAll(tasks, aIndicator);
+
+        int count = 0;
+        for (long[] fingerprints : results) {
+            count += fingerprints == null ? 0 : fingerprints.length;
+        }
+
+        long[] fingerprints = new long[count];
+        int position = 0;
+        for (long[] fileFingerprints : results) {
+            if (fileFingerprints != null) {
+                System.arraycopy(fileFingerprints, 0, fingerprints, position, fileFingerprints.length);
+                position += fileFingerprints.length;
+            }
+        }
+
+        try {
+            baseline.save(fingerprints);
+        } catch (IOException ex) {
+            Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "Error", "Can't save SwiftLint baseline.\nIOException: " + ex.getMessage(), NotificationType.ERROR));
+            return;
+        }
+
+        // Every violation found is in the baseline now. Deferred results were filtered with the previous baseline.
+        ViolationAggregateIndex.getInstance(aProject).clear();
+        ViolationStore.getInstance(aProject).removeIf((aPath, aViolations) -> false, (aPath, aViolations) -> true);
+
+        Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "SwiftLint baseline",
+                String.format("%d violation(s) in %d file(s) recorded in %s", count, files.size(), ViolationBaseline.FILE_NAME),
+                NotificationType.INFORMATION), aProject);
+
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (!aProject.isDisposed()) {
+                DaemonCodeAnalyzer.getInstance(aProject).restart();
+            }
+        });
+    }
+}
@@ -0,0 +1,158 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.AppTopics;
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentAdapter;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.FileDocumentManagerAdapter;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.util.Alarm;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.*;
+
+// Runs lints that are kept off the typing path: the full rule profile (so on-the-fly highlighting can use the fast one)
+// and files whose lint policy is "on save" or "in background". Runs on save and after the user stops typing.
+public class DeferredLintScheduler {
+    private static final int IDLE_DELAY_MS = 3000;
+
+    private final Project _project;
+    private final Alarm _alarm;
+    // File to "was saved" flag, in scheduling order (e.g. visible editors first); guarded by itself
+    private final Map<VirtualFile, Boolean> _pendingFiles = new LinkedHashMap<>();
+
+    public DeferredLintScheduler(@NotNull Project aProject) {
+        _project = aProject;
+        _alarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, aProject);
+    }
+
+    static DeferredLintScheduler getInstance(@NotNull Project aProject) {
+        return ServiceManager.getService(aProject, DeferredLintScheduler.class);
+    }
+
+    void start() {
+        _project.getMessageBus().connect(_project).subscribe(AppTopics.FILE_DOCUMENT_SYNC, new FileDocumentManagerAdapter() {
+            @Override
+            public void beforeDocumentSaving(@NotNull Document aDocument) {
+                schedule(FileDocumentManager.getInstance().getFile(aDocument), true);
+            }
+        });
+
+        EditorFactory.getInstance().getEventMulticaster().addDocumentListener(new DocumentAdapter() {
+            @Override
+            public void documentChanged(DocumentEvent aEvent) {
+                schedule(FileDocumentManager.getInstance().getFile(aEvent.getDocument()), false);
+            }
+        }, _project);
+    }
+
+    // aSaved: lint now, including files linted on save only; otherwise lint once the user stops typing
+    void schedule(VirtualFile aFile, boolean aSaved) {
+        if (aFile == null || !"swift".equalsIgnoreCase(aFile.getExtension()) || _project.isDisposed() ||
+                !ProjectFileIndex.SERVICE.getInstance(_project).isInContent(aFile)) {
+            return;
+        }
+
+        synchronized (_pendingFiles) {
+            _pendingFiles.merge(aFile, aSaved, Boolean::logicalOr);
+        }
+        _alarm.cancelAllRequests();
+        _alarm.addRequest(this::lintPendingFiles, aSaved ? 0 : IDLE_DELAY_MS);
+    }
+
+    private void lintPendingFiles() {
+        while (!_project.isDisposed()) {
+            Map.Entry<VirtualFile, Boolean> pending;
+            synchronized (_pendingFiles) {
+                Iterator<Map.Entry<VirtualFile, Boolean>> iterator = _pendingFiles.entrySet().iterator();
+                if (!iterator.hasNext()) {
+                    return;
+                }
+                pending = new AbstractMap.SimpleImmutableEntry<>(iterator.next());
+                iterator.remove();
+            }
+
+            VirtualFile file = pending.getKey();
+            try {
+                lint(file, pending.getValue());
+            } catch (ProcessCanceledException | InterruptedIOException ex) {
+                // Do nothing here
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    private void lint(@NotNull VirtualFile aFile, boolean aSaved) throws IOException {
+        PsiFile psiFile = ApplicationManager.getApplication().runReadAction((Computable<PsiFile>) () ->
+                aFile.isValid() ? PsiManager.getInstance(_project).findFile(aFile) : null);
+        Document document = FileDocumentManager.getInstance().getDocument(aFile);
+        if (psiFile == null || document == null) {
+            return;
+        }
+
+        LintPolicy policy = LintPolicyEngine.getInstance(_project).decide(aFile, document).policy;
+        if (policy == LintPolicy.NEVER || (policy == LintPolicy.ON_SAVE && !aSaved)) {
+            return;
+        }
+
+        SwiftLintSettings.Snapshot settings = SwiftLintSettings.snapshot(_project);
+        SwiftLintConfigWatcher configWatcher = SwiftLintConfigWatcher.getInstance(_project);
+        String swiftLintConfigPath = configWatcher.configPath();
+        if ((settings.disableWhenNoConfigPresent && swiftLintConfigPath == null) || configWatcher.config().isExcluded(aFile.getPath())) {
+            return;
+        }
+
+        SwiftLintCapabilities capabilities = SwiftLintCapabilities.of(settings.appPath);
+        if (!capabilities.available) {
+            return;
+        }
+
+        RuleCatalog catalog = RuleCatalog.of(capabilities);
+        RuleProfile profile = RuleProfiles.getInstance(_project).profile(capabilities, catalog, swiftLintConfigPath);
+        if (!policy.isDeferred() && !profile.hasFastProfile()) {
+            return;
+        }
+
+        String[] text = new String[1];
+        long[] modificationStamp = new long[1];
+        // Both from the document: the PSI may not be committed yet, and its text would be older than the stamp
+        ApplicationManager.getApplication().runReadAction(() -> {
+            text[0] = document.getText();
+            modificationStamp[0] = document.getModificationStamp();
+        });
+
+        LintPolicyEngine policyEngine = LintPolicyEngine.getInstance(_project);
+        List<Violation> violations = SwiftLintRunner.lint(capabilities, swiftLintConfigPath, aFile.getPath(), text[0],
+                aMillis -> policyEngine.recordLatency(aFile.getPath(), aMillis));
+
+        ViolationStore violationStore = ViolationStore.getInstance(_project);
+        if (policy.isDeferred()) {
+            // Filtered against the text that was linted: the document may have changed by the time they are shown
+            List<Violation> reported = ViolationBaseline.getInstance(_project).filter(aFile.getPath(), text[0], violations, catalog);
+            violationStore.putDeferredViolations(aFile.getPath(), reported);
+            ViolationAggregateIndex.getInstance(_project).update(aFile.getPath(), reported, catalog);
+        } else {
+            violationStore.putFullProfileViolations(aFile.getPath(), modificationStamp[0], profile.expensiveOnly(violations, catalog));
+        }
+
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (!_project.isDisposed() && psiFile.isValid()) {
+                DaemonCodeAnalyzer.getInstance(_project).restart(psiFile);
+            }
+        });
+    }
+}
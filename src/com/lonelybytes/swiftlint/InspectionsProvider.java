@@ -7,11 +7,6 @@ public class InspectionsProvider implements InspectionToolProvider {
     @NotNull
     @Override
     public Class[] getInspectionClasses() {
-//        List<String> rules = Arrays
-//                .stream(SwiftLintConfig.rules)
-//                .map(aStrings -> aStrings[0])
-//                .collect(Collectors.toList());
-
         return new Class[] {
                 SwiftLintInspection.class
         };
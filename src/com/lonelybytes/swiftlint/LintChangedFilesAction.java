@@ -0,0 +1,53 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vcs.VcsDataKeys;
+import com.intellij.openapi.vcs.changes.Change;
+import com.intellij.openapi.vcs.changes.ChangeListManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Lints the changes selected in the Changes view, or all local changes when nothing is selected
+public class LintChangedFilesAction extends AnAction {
+    @Override
+    public void update(AnActionEvent aEvent) {
+        aEvent.getPresentation().setEnabled(aEvent.getProject() != null);
+    }
+
+    @Override
+    public void actionPerformed(AnActionEvent aEvent) {
+        Project project = aEvent.getProject();
+        if (project == null) {
+            return;
+        }
+
+        Change[] selectedChanges = aEvent.getData(VcsDataKeys.CHANGES);
+        Collection<Change> changes = selectedChanges != null && selectedChanges.length > 0 ?
+                Arrays.asList(selectedChanges) : ChangeListManager.getInstance(project).getAllChanges();
+        boolean changedLinesOnly = SwiftLintProjectSettings.getInstance(project).isChangedLinesOnly();
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Linting changed files", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator aIndicator) {
+                ChangedFilesLinter.Result result = ChangedFilesLinter.lint(project, changes, changedLinesOnly, aIndicator);
+                if (result == null) {
+                    return;
+                }
+
+                NotificationType type = result.errorCount > 0 ? NotificationType.ERROR :
+                        (result.violationCount > 0 ? NotificationType.WARNING : NotificationType.INFORMATION);
+                Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "SwiftLint: changed files", result.report(), type), project);
+            }
+        });
+    }
+}
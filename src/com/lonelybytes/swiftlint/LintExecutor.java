@@ -0,0 +1,120 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+// Shared pool for lints of many files at once. Each task runs a SwiftLint process, so the pool size
+// limits the number of processes rather than CPU work in the plugin itself.
+final class LintExecutor {
+    static final int PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final int CANCEL_CHECK_INTERVAL_MS = 100;
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), aRunnable -> {
+        Thread thread = new Thread(aRunnable, "SwiftLint lint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private LintExecutor() {
+    }
+
+    // Runs the tasks in parallel and returns results in task order; a failed task yields null.
+    // Cancelling aIndicator cancels the tasks that haven't finished yet.
+    @NotNull
+    static <T> List<T> invokeAll(@NotNull List<Callable<T>> aTasks, @Nullable ProgressIndicator aIndicator) {
+        List<Future<T>> futures = new ArrayList<>(aTasks.size());
+        for (Callable<T> task : aTasks) {
+            futures.add(EXECUTOR.submit(task));
+        }
+
+        List<T> result = new ArrayList<>(futures.size());
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                result.add(await(futures.get(i), aIndicator));
+                if (aIndicator != null) {
+                    aIndicator.setFraction((double) (i + 1) / futures.size());
+                }
+            }
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        return result;
+    }
+
+    // Like invokeAll, but hands each result to aConsumer on the calling thread as soon as it's ready
+    static <T> void forEachCompleted(@NotNull List<Callable<T>> aTasks, @Nullable ProgressIndicator aIndicator, @NotNull Consumer<T> aConsumer) {
+        CompletionService<T> completionService = new ExecutorCompletionService<>(EXECUTOR);
+        List<Future<T>> futures = new ArrayList<>(aTasks.size());
+        for (Callable<T> task : aTasks) {
+            futures.add(completionService.submit(task));
+        }
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                Future<T> future;
+                do {
+                    if (aIndicator != null) {
+                        aIndicator.checkCanceled();
+                    }
+                    try {
+                        future = completionService.poll(CANCEL_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new ProcessCanceledException();
+                    }
+                } while (future == null);
+
+                T result = await(future, aIndicator);
+                if (result != null) {
+                    aConsumer.accept(result);
+                }
+                if (aIndicator != null) {
+                    aIndicator.setFraction((double) (i + 1) / futures.size());
+                }
+            }
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static <T> T await(@NotNull Future<T> aFuture, @Nullable ProgressIndicator aIndicator) {
+        while (true) {
+            if (aIndicator != null) {
+                aIndicator.checkCanceled();
+            }
+
+            try {
+                return aFuture.get(CANCEL_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                // Check for cancellation and wait again
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException();
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof ProcessCanceledException) {
+                    throw (ProcessCanceledException) ex.getCause();
+                }
+                ex.getCause().printStackTrace();
+                return null;
+            }
+        }
+    }
+}
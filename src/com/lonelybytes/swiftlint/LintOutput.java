@@ -0,0 +1,211 @@
+package com.lonelybytes.swiftlint;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+// Captured standard output of a SwiftLint run. Output stays in memory up to the configured limit and is spilled to a
+// temp file beyond it; spilled output is read back through memory-mapped windows, so neither capturing nor parsing
+// puts the whole output on the heap.
+class LintOutput extends OutputStream {
+    static final int DEFAULT_MEMORY_LIMIT_KB = 4 * 1024;
+    static final int DEFAULT_MAX_VIOLATIONS_PER_FILE = 2000;
+
+    private static final int MAP_WINDOW = 64 * 1024 * 1024;
+    // Longer lines can't be "xcode" reporter violations; they are skipped without being decoded
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private static volatile int memoryLimit = DEFAULT_MEMORY_LIMIT_KB * 1024;
+    private static volatile int maxViolationsPerFile = DEFAULT_MAX_VIOLATIONS_PER_FILE;
+
+    interface LineConsumer {
+        // Returns false to stop reading
+        boolean line(@NotNull String aLine);
+    }
+
+    private final int _memoryLimit;
+    private byte[] _buffer = new byte[8 * 1024];
+    private int _size;
+    private File _spillFile;
+    private OutputStream _spill;
+    private long _length;
+
+    LintOutput() {
+        this(memoryLimit);
+    }
+
+    LintOutput(int aMemoryLimit) {
+        _memoryLimit = aMemoryLimit;
+    }
+
+    static void setLimits(int aMemoryLimitKb, int aMaxViolationsPerFile) {
+        memoryLimit = Math.max(64, aMemoryLimitKb) * 1024;
+        maxViolationsPerFile = Math.max(1, aMaxViolationsPerFile);
+    }
+
+    static int maxViolationsPerFile() {
+        return maxViolationsPerFile;
+    }
+
+    @Override
+    public void write(int aByte) throws IOException {
+        write(new byte[] { (byte) aByte }, 0, 1);
+    }
+
+    @Override
+    public void write(@NotNull byte[] aBytes, int aOffset, int aLength) throws IOException {
+        _length += aLength;
+        if (_spill != null) {
+            _spill.write(aBytes, aOffset, aLength);
+            return;
+        }
+
+        if (_size + aLength > _memoryLimit) {
+            spill();
+            _spill.write(aBytes, aOffset, aLength);
+            return;
+        }
+
+        if (_size + aLength > _buffer.length) {
+            byte[] buffer = new byte[Math.min(_memoryLimit, Math.max(_buffer.length * 2, _size + aLength))];
+            System.arraycopy(_buffer, 0, buffer, 0, _size);
+            _buffer = buffer;
+        }
+        System.arraycopy(aBytes, aOffset, _buffer, _size, aLength);
+        _size += aLength;
+    }
+
+    long length() {
+        return _length;
+    }
+
+    boolean isSpilled() {
+        return _spillFile != null;
+    }
+
+    // Whole output as text; for short outputs such as the version or the rules listing
+    @NotNull
+    String text() throws IOException {
+        StringBuilder result = new StringBuilder();
+        forEachLine(aLine -> {
+            result.append(aLine).append("\n");
+            return true;
+        });
+        return result.toString();
+    }
+
+    void forEachLine(@NotNull LineConsumer aConsumer) throws IOException {
+        if (_spill == null) {
+            forEachLine(ByteBuffer.wrap(_buffer, 0, _size), true, aConsumer, new LineDecoder());
+            return;
+        }
+
+        _spill.flush();
+        try (FileChannel channel = FileChannel.open(_spillFile.toPath(), StandardOpenOption.READ)) {
+            LineDecoder decoder = new LineDecoder();
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long windowSize = Math.min(MAP_WINDOW, size - position);
+                boolean last = position + windowSize == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+
+                int consumed = forEachLine(window, last, aConsumer, decoder);
+                if (consumed < 0) {
+                    return;
+                }
+                if (consumed == 0) {
+                    // A single line fills the window: skip to its end
+                    consumed = (int) windowSize;
+                    decoder.skipping = true;
+                }
+                position += consumed;
+            }
+        }
+    }
+
+    // Returns the number of bytes of complete lines consumed, or -1 when the consumer stopped
+    private static int forEachLine(@NotNull ByteBuffer aBuffer, boolean aLast, @NotNull LineConsumer aConsumer, @NotNull LineDecoder aDecoder) {
+        int start = aBuffer.position();
+        int limit = aBuffer.limit();
+        int lineStart = start;
+        for (int i = start; i < limit; i++) {
+            if (aBuffer.get(i) == '\n') {
+                if (!aDecoder.line(aBuffer, lineStart, i, aConsumer)) {
+                    return -1;
+                }
+                lineStart = i + 1;
+            }
+        }
+
+        if (aLast && lineStart < limit && !aDecoder.line(aBuffer, lineStart, limit, aConsumer)) {
+            return -1;
+        }
+
+        return aLast ? limit - start : lineStart - start;
+    }
+
+    @Override
+    public void close() {
+        if (_spill != null) {
+            try {
+                _spill.close();
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+            _spill = null;
+        }
+
+        if (_spillFile != null) {
+            if (!_spillFile.delete()) {
+                _spillFile.deleteOnExit();
+            }
+            _spillFile = null;
+        }
+        _buffer = new byte[0];
+        _size = 0;
+    }
+
+    private void spill() throws IOException {
+        _spillFile = File.createTempFile("swiftlint-output", ".txt");
+        _spill = new BufferedOutputStream(Files.newOutputStream(_spillFile.toPath()), 64 * 1024);
+        _spill.write(_buffer, 0, _size);
+        _buffer = new byte[0];
+        _size = 0;
+    }
+
+    private static class LineDecoder {
+        private byte[] _line = new byte[1024];
+        // Set while the rest of an overlong line is skipped
+        boolean skipping;
+
+        boolean line(@NotNull ByteBuffer aBuffer, int aFrom, int aTo, @NotNull LineConsumer aConsumer) {
+            if (skipping) {
+                skipping = false;
+                return true;
+            }
+
+            int length = aTo - aFrom;
+            if (length > 0 && aBuffer.get(aTo - 1) == '\r') {
+                length--;
+            }
+            if (length > MAX_LINE_LENGTH) {
+                return true;
+            }
+            if (length > _line.length) {
+                _line = new byte[Math.min(MAX_LINE_LENGTH, Math.max(length, _line.length * 2))];
+            }
+
+            for (int i = 0; i < length; i++) {
+                _line[i] = aBuffer.get(aFrom + i);
+            }
+            return aConsumer.line(new String(_line, 0, length, Charset.defaultCharset()));
+        }
+    }
+}
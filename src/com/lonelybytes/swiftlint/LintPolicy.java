@@ -0,0 +1,18 @@
+package com.lonelybytes.swiftlint;
+
+enum LintPolicy {
+    ON_THE_FLY("On the fly"),
+    ON_SAVE("On save only"),
+    BACKGROUND("In background"),
+    NEVER("Never");
+
+    final String displayName;
+
+    LintPolicy(String aDisplayName) {
+        displayName = aDisplayName;
+    }
+
+    boolean isDeferred() {
+        return this == ON_SAVE || this == BACKGROUND;
+    }
+}
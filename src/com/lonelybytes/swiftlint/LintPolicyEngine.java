@@ -0,0 +1,205 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.openapi.components.*;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Decides per file when it is linted, based on size, generated-code markers and the lint latency seen so far
+@State(name = "SwiftLintPolicy", storages = @Storage(StoragePathMacros.WORKSPACE_FILE))
+public class LintPolicyEngine implements PersistentStateComponent<LintPolicyEngine.PolicyState> {
+    private static final int BACKGROUND_LINE_COUNT = 20000;
+    private static final int BACKGROUND_TEXT_LENGTH = 1024 * 1024;
+    private static final long BACKGROUND_LATENCY_MS = 2000;
+    private static final long ON_SAVE_LATENCY_MS = 500;
+
+    private static final int MAX_RECORDED_LATENCIES = 2000;
+    // A single run may be slow for unrelated reasons, the first one in particular (cold start, disk cache)
+    private static final int MIN_LATENCY_SAMPLES = 3;
+    private static final int GENERATED_MARKER_SCAN_LENGTH = 2048;
+    // Looked for in the leading comment block only, where generators put their banner
+    private static final String[] GENERATED_MARKERS = {
+            "@generated", "this file was automatically generated", "this file was generated", "this is a generated file",
+            "generated using ", "do not edit"
+    };
+
+    @SuppressWarnings("WeakerAccess")
+    public static class PolicyState {
+        // Path to LintPolicy name
+        public Map<String, String> overrides = new HashMap<>();
+        // Path to average lint time, ms; least recently used first
+        public Map<String, Long> latencies = new LinkedHashMap<>();
+    }
+
+    static final class Decision {
+        final LintPolicy policy;
+        final String reason;
+        final boolean overridden;
+
+        Decision(LintPolicy aPolicy, String aReason, boolean aOverridden) {
+            policy = aPolicy;
+            reason = aReason;
+            overridden = aOverridden;
+        }
+    }
+
+    private static final class Latency {
+        final long average;
+        final int samples;
+
+        Latency(long aAverage, int aSamples) {
+            average = aAverage;
+            samples = aSamples;
+        }
+    }
+
+    private final Map<String, LintPolicy> _overrides = new ConcurrentHashMap<>();
+    // Access-ordered, guarded by itself: files that haven't been looked at for longest are forgotten first
+    private final Map<String, Latency> _latencies = new LinkedHashMap<String, Latency>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Latency> aEldest) {
+            return size() > MAX_RECORDED_LATENCIES;
+        }
+    };
+
+    static LintPolicyEngine getInstance(@NotNull Project aProject) {
+        return ServiceManager.getService(aProject, LintPolicyEngine.class);
+    }
+
+    @NotNull
+    Decision decide(@NotNull VirtualFile aFile, @NotNull Document aDocument) {
+        LintPolicy override = _overrides.get(aFile.getPath());
+        if (override != null) {
+            return new Decision(override, "set manually", true);
+        }
+
+        if (isGenerated(aFile, aDocument)) {
+            return new Decision(LintPolicy.NEVER, "generated code", false);
+        }
+
+        if (aDocument.getLineCount() > BACKGROUND_LINE_COUNT || aDocument.getTextLength() > BACKGROUND_TEXT_LENGTH) {
+            return new Decision(LintPolicy.BACKGROUND, aDocument.getLineCount() + " lines", false);
+        }
+
+        Long latency = null;
+        synchronized (_latencies) {
+            Latency recorded = _latencies.get(aFile.getPath());
+            if (recorded != null && recorded.samples >= MIN_LATENCY_SAMPLES) {
+                latency = recorded.average;
+            }
+        }
+        if (latency != null && latency > BACKGROUND_LATENCY_MS) {
+            return new Decision(LintPolicy.BACKGROUND, "linting takes " + latency + " ms", false);
+        }
+        if (latency != null && latency > ON_SAVE_LATENCY_MS) {
+            return new Decision(LintPolicy.ON_SAVE, "linting takes " + latency + " ms", false);
+        }
+
+        return new Decision(LintPolicy.ON_THE_FLY, "", false);
+    }
+
+    void setOverride(@NotNull VirtualFile aFile, @Nullable LintPolicy aPolicy) {
+        if (aPolicy == null) {
+            _overrides.remove(aFile.getPath());
+        } else {
+            _overrides.put(aFile.getPath(), aPolicy);
+        }
+    }
+
+    // aMillis is the run time of a SwiftLint process started for the file; cache hits don't tell anything about it
+    void recordLatency(@NotNull String aFilePath, long aMillis) {
+        synchronized (_latencies) {
+            Latency previous = _latencies.get(aFilePath);
+            if (previous == null) {
+                _latencies.put(aFilePath, new Latency(aMillis, 1));
+            } else {
+                // Until there are enough samples the fastest run is kept, so a slow first run doesn't skew the average
+                long average = previous.samples < MIN_LATENCY_SAMPLES ? Math.min(previous.average, aMillis) : (previous.average * 3 + aMillis) / 4;
+                _latencies.put(aFilePath, new Latency(average, Math.min(previous.samples + 1, MIN_LATENCY_SAMPLES)));
+            }
+        }
+    }
+
+    private static boolean isGenerated(@NotNull VirtualFile aFile, @NotNull Document aDocument) {
+        String name = aFile.getName().toLowerCase();
+        if (name.endsWith(".generated.swift") || name.equals("r.swift")) {
+            return true;
+        }
+
+        CharSequence chars = aDocument.getImmutableCharSequence();
+        String header = leadingComments(chars.subSequence(0, Math.min(chars.length(), GENERATED_MARKER_SCAN_LENGTH)).toString()).toLowerCase();
+        for (String marker : GENERATED_MARKERS) {
+            if (header.contains(marker)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Comments before the first line of code; a doc comment further down never marks the file as generated
+    @NotNull
+    private static String leadingComments(@NotNull String aText) {
+        StringBuilder result = new StringBuilder();
+        boolean inBlockComment = false;
+        for (String line : aText.split("\n")) {
+            String trimmed = line.trim();
+            if (inBlockComment) {
+                inBlockComment = !trimmed.contains("*/");
+            } else if (trimmed.startsWith("/*")) {
+                inBlockComment = !trimmed.substring(2).contains("*/");
+            } else if (!trimmed.isEmpty() && !trimmed.startsWith("//")) {
+                break;
+            }
+            result.append(trimmed).append("\n");
+        }
+        return result.toString();
+    }
+
+    @Nullable
+    @Override
+    public PolicyState getState() {
+        PolicyState state = new PolicyState();
+        for (Map.Entry<String, LintPolicy> entry : _overrides.entrySet()) {
+            state.overrides.put(entry.getKey(), entry.getValue().name());
+        }
+        synchronized (_latencies) {
+            for (Map.Entry<String, Latency> entry : _latencies.entrySet()) {
+                if (entry.getValue().samples >= MIN_LATENCY_SAMPLES) {
+                    state.latencies.put(entry.getKey(), entry.getValue().average);
+                }
+            }
+        }
+        return state;
+    }
+
+    @Override
+    public void loadState(PolicyState aState) {
+        PolicyState state = new PolicyState();
+        XmlSerializerUtil.copyBean(aState, state);
+
+        _overrides.clear();
+        for (Map.Entry<String, String> entry : state.overrides.entrySet()) {
+            try {
+                _overrides.put(entry.getKey(), LintPolicy.valueOf(entry.getValue()));
+            } catch (IllegalArgumentException ex) {
+                // Policy from a newer version of the plugin
+            }
+        }
+
+        synchronized (_latencies) {
+            _latencies.clear();
+            for (Map.Entry<String, Long> entry : state.latencies.entrySet()) {
+                _latencies.put(entry.getKey(), new Latency(entry.getValue(), MIN_LATENCY_SAMPLES));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.FileEditor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.EditorNotificationPanel;
+import com.intellij.ui.EditorNotifications;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+// Tells the user when SwiftLint doesn't lint the file while typing, and why
+public class LintPolicyNotificationProvider extends EditorNotifications.Provider<EditorNotificationPanel> {
+    private static final Key<EditorNotificationPanel> KEY = Key.create("SwiftLint.LintPolicy");
+
+    private final Project _project;
+
+    public LintPolicyNotificationProvider(@NotNull Project aProject) {
+        _project = aProject;
+    }
+
+    @NotNull
+    @Override
+    public Key<EditorNotificationPanel> getKey() {
+        return KEY;
+    }
+
+    @Nullable
+    @Override
+    public EditorNotificationPanel createNotificationPanel(@NotNull VirtualFile aFile, @NotNull FileEditor aFileEditor) {
+        if (!"swift".equalsIgnoreCase(aFile.getExtension())) {
+            return null;
+        }
+
+        Document document = FileDocumentManager.getInstance().getDocument(aFile);
+        if (document == null) {
+            return null;
+        }
+
+        LintPolicyEngine.Decision decision = LintPolicyEngine.getInstance(_project).decide(aFile, document);
+        if (decision.policy == LintPolicy.ON_THE_FLY) {
+            return null;
+        }
+
+        EditorNotificationPanel panel = new EditorNotificationPanel();
+        panel.setText("SwiftLint: " + decision.policy.displayName.toLowerCase() + " (" + decision.reason + ")");
+        panel.createActionLabel("Lint on the fly", () -> setOverride(aFile, LintPolicy.ON_THE_FLY));
+        if (decision.overridden) {
+            panel.createActionLabel("Reset", () -> setOverride(aFile, null));
+        }
+        return panel;
+    }
+
+    private void setOverride(@NotNull VirtualFile aFile, @Nullable LintPolicy aPolicy) {
+        ChangeLintPolicyAction.setOverride(_project, aFile, aPolicy);
+    }
+}
@@ -0,0 +1,129 @@
+package com.lonelybytes.swiftlint;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Writes command line runner results as SARIF 2.1.0 or as a plain JSON array of violations.
+// aResults maps project-relative paths to violations, in output order.
+class LintReportWriter {
+    private static final String SARIF_SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+
+    private LintReportWriter() {
+    }
+
+    static void writeJson(@NotNull Writer aWriter, @NotNull Map<String, List<Violation>> aResults, @NotNull RuleCatalog aCatalog) throws IOException {
+        aWriter.write("[");
+        boolean first = true;
+        for (Map.Entry<String, List<Violation>> file : aResults.entrySet()) {
+            for (Violation violation : file.getValue()) {
+                aWriter.write(first ? "\n  {" : ",\n  {");
+                first = false;
+
+                aWriter.write("\"file\": " + string(file.getKey()));
+                aWriter.write(", \"line\": " + violation.line);
+                if (violation.column > 0) {
+                    aWriter.write(", \"column\": " + violation.column);
+                }
+                aWriter.write(", \"severity\": " + string(severityName(violation.severity)));
+                aWriter.write(", \"rule_id\": " + string(aCatalog.name(violation.ruleId)));
+                aWriter.write(", \"reason\": " + string(violation.message));
+                aWriter.write("}");
+            }
+        }
+        aWriter.write(first ? "]\n" : "\n]\n");
+    }
+
+    static void writeSarif(@NotNull Writer aWriter, @NotNull Map<String, List<Violation>> aResults, @NotNull RuleCatalog aCatalog,
+                           @NotNull String aVersion) throws IOException {
+        Set<String> rules = new TreeSet<>();
+        for (List<Violation> violations : aResults.values()) {
+            for (Violation violation : violations) {
+                rules.add(aCatalog.name(violation.ruleId));
+            }
+        }
+
+        aWriter.write("{\n");
+        aWriter.write("  \"$schema\": " + string(SARIF_SCHEMA) + ",\n");
+        aWriter.write("  \"version\": \"2.1.0\",\n");
+        aWriter.write("  \"runs\": [{\n");
+        aWriter.write("    \"tool\": {\"driver\": {\"name\": \"SwiftLint\", \"version\": " + string(aVersion) +
+                ", \"informationUri\": \"https://github.com/realm/SwiftLint\", \"rules\": [");
+        boolean first = true;
+        for (String rule : rules) {
+            aWriter.write((first ? "" : ", ") + "{\"id\": " + string(rule) + "}");
+            first = false;
+        }
+        aWriter.write("]}},\n");
+
+        aWriter.write("    \"results\": [");
+        first = true;
+        for (Map.Entry<String, List<Violation>> file : aResults.entrySet()) {
+            for (Violation violation : file.getValue()) {
+                aWriter.write(first ? "\n      {" : ",\n      {");
+                first = false;
+
+                aWriter.write("\"ruleId\": " + string(aCatalog.name(violation.ruleId)));
+                aWriter.write(", \"level\": " + string(violation.severity == Violation.SEVERITY_ERROR ? "error" :
+                        (violation.severity == Violation.SEVERITY_WARNING ? "warning" : "note")));
+                aWriter.write(", \"message\": {\"text\": " + string(violation.message) + "}");
+                aWriter.write(", \"locations\": [{\"physicalLocation\": {\"artifactLocation\": {\"uri\": " + string(file.getKey()) + "}");
+                aWriter.write(", \"region\": {\"startLine\": " + Math.max(1, violation.line));
+                if (violation.column > 0) {
+                    aWriter.write(", \"startColumn\": " + violation.column);
+                }
+                aWriter.write("}}}]}");
+            }
+        }
+        aWriter.write(first ? "]\n" : "\n    ]\n");
+        aWriter.write("  }]\n");
+        aWriter.write("}\n");
+    }
+
+    private static String severityName(byte aSeverity) {
+        switch (aSeverity) {
+            case Violation.SEVERITY_ERROR:
+                return "error";
+            case Violation.SEVERITY_WARNING:
+                return "warning";
+            default:
+                return "other";
+        }
+    }
+
+    private static String string(@NotNull String aValue) {
+        StringBuilder result = new StringBuilder(aValue.length() + 2).append('"');
+        for (int i = 0; i < aValue.length(); i++) {
+            char c = aValue.charAt(i);
+            switch (c) {
+                case '"':
+                    result.append("\\\"");
+                    break;
+                case '\\':
+                    result.append("\\\\");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.append('"').toString();
+    }
+}
@@ -0,0 +1,127 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Runs "swiftlint lint --benchmark" over the project and stores per-rule times used to build the fast rule profile
+public class MeasureRuleCostAction extends AnAction {
+    private static final String BENCHMARK_RULES_FILE = "benchmark_rules.txt";
+    private static final Pattern BENCHMARK_LINE_PATTERN = Pattern.compile("^\\s*([0-9.]+):\\s*(\\S+)\\s*$");
+    private static final int RULES_IN_NOTIFICATION = 10;
+
+    @Override
+    public void update(AnActionEvent aEvent) {
+        aEvent.getPresentation().setEnabled(aEvent.getProject() != null);
+    }
+
+    @Override
+    public void actionPerformed(AnActionEvent aEvent) {
+        Project project = aEvent.getProject();
+        if (project == null) {
+            return;
+        }
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Measuring SwiftLint rule cost", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator aIndicator) {
+                measure(project);
+            }
+        });
+    }
+
+    private static void measure(@NotNull Project aProject) {
+        SwiftLintSettings.Snapshot settings = SwiftLintSettings.snapshot(aProject);
+        SwiftLintCapabilities capabilities = SwiftLintCapabilities.of(settings.appPath);
+        if (!capabilities.available) {
+            return;
+        }
+
+        if (!capabilities.supportsBenchmark) {
+            Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "SwiftLint", "SwiftLint " + capabilities.version + " can't benchmark rules.", NotificationType.WARNING));
+            return;
+        }
+
+        String swiftLintConfigPath = SwiftLintConfigWatcher.getInstance(aProject).configPath();
+
+        File workingDirectory = null;
+        try {
+            // SwiftLint writes benchmark results to the working directory; keep them out of the project
+            workingDirectory = FileUtil.createTempDirectory("swiftlint-benchmark", null);
+
+            List<String> options = new ArrayList<>(Arrays.asList("lint", "--benchmark", "--quiet", "--path", aProject.getBasePath()));
+            if (swiftLintConfigPath != null) {
+                options.add("--config");
+                options.add(swiftLintConfigPath);
+            }
+
+            // The report goes to a file; the output of a project-wide lint is only captured, within the memory limit
+            try (LintOutput output = new LintOutput()) {
+                Utils.checkLintExitCode(Utils.executeCommand(settings.appPath, options.toArray(new String[0]), null, workingDirectory, output));
+            }
+
+            Map<String, Double> ruleCosts = parseBenchmark(new File(workingDirectory, BENCHMARK_RULES_FILE));
+            if (ruleCosts.isEmpty()) {
+                Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "SwiftLint", "SwiftLint didn't report rule timings.", NotificationType.WARNING));
+                return;
+            }
+
+            SwiftLintProjectSettings.getInstance(aProject).updateRuleCosts(ruleCosts);
+            notifyResults(ruleCosts);
+        } catch (IOException ex) {
+            Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "Error", "Can't measure rule cost.\nIOException: " + ex.getMessage(), NotificationType.ERROR));
+        } finally {
+            if (workingDirectory != null) {
+                FileUtil.delete(workingDirectory);
+            }
+        }
+    }
+
+    private static Map<String, Double> parseBenchmark(@NotNull File aFile) throws IOException {
+        Map<String, Double> result = new HashMap<>();
+        if (!aFile.exists()) {
+            return result;
+        }
+
+        for (String line : Files.readAllLines(aFile.toPath(), StandardCharsets.UTF_8)) {
+            Matcher matcher = BENCHMARK_LINE_PATTERN.matcher(line);
+            if (matcher.matches()) {
+                result.merge(matcher.group(2), Double.parseDouble(matcher.group(1)), Double::sum);
+            }
+        }
+
+        return result;
+    }
+
+    private static void notifyResults(@NotNull Map<String, Double> aRuleCosts) {
+        Set<String> expensiveRules = RuleProfile.expensiveRules(aRuleCosts);
+        List<Map.Entry<String, Double>> ruleCosts = new ArrayList<>(aRuleCosts.entrySet());
+        ruleCosts.sort((aLeft, aRight) -> Double.compare(aRight.getValue(), aLeft.getValue()));
+
+        StringBuilder message = new StringBuilder("Slowest rules:");
+        for (Map.Entry<String, Double> ruleCost : ruleCosts.subList(0, Math.min(RULES_IN_NOTIFICATION, ruleCosts.size()))) {
+            message.append("<br>").append(ruleCost.getKey()).append(": ").append(String.format("%.1f ms", ruleCost.getValue() * 1000));
+            if (expensiveRules.contains(ruleCost.getKey())) {
+                message.append(" (on save only)");
+            }
+        }
+
+        Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "SwiftLint rule cost", message.toString(), NotificationType.INFORMATION));
+    }
+}
@@ -0,0 +1,141 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.options.Configurable;
+import com.intellij.openapi.options.ConfigurationException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.TextFieldWithBrowseButton;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.panels.HorizontalLayout;
+import com.intellij.ui.components.panels.VerticalLayout;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.util.*;
+
+public class ProjectConfiguration implements Configurable {
+    private static final String[] OVERRIDE_OPTIONS = { "Use global setting", "Enabled", "Disabled" };
+
+    private final Project _project;
+
+    private TextFieldWithBrowseButton browser;
+    private ComboBox<String> quickFixComboBox;
+    private ComboBox<String> disableWhenNoConfigPresentComboBox;
+    private DefaultTableModel ruleCostsModel;
+
+    public ProjectConfiguration(@NotNull Project aProject) {
+        _project = aProject;
+    }
+
+    @Nls
+    @Override
+    public String getDisplayName() {
+        return "SwiftLint (Project)";
+    }
+
+    @Nullable
+    @Override
+    public String getHelpTopic() {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public JComponent createComponent() {
+        JPanel panel = new JPanel(new VerticalLayout(2, SwingConstants.LEFT));
+
+        JPanel pathRow = new JPanel(new HorizontalLayout(20, SwingConstants.CENTER));
+        JLabel pathLabel = new JLabel("SwiftLint path (empty for global):");
+        browser = new TextFieldWithBrowseButton(new JTextField(30));
+        browser.addBrowseFolderListener("SwiftLint State", "Select path to SwiftLint executable", _project,
+                FileChooserDescriptorFactory.createSingleFileNoJarsDescriptor());
+        pathRow.add(pathLabel);
+        pathRow.add(browser);
+        panel.add(pathRow);
+
+        quickFixComboBox = new ComboBox<>(OVERRIDE_OPTIONS);
+        panel.add(labeledRow("\"Autocorrect\" quick-fix:", quickFixComboBox));
+
+        disableWhenNoConfigPresentComboBox = new ComboBox<>(OVERRIDE_OPTIONS);
+        panel.add(labeledRow("Disable when no .swiftlint.yml present:", disableWhenNoConfigPresentComboBox));
+
+        ruleCostsModel = new DefaultTableModel(new Object[] { "Rule", "Time, ms", "Profile" }, 0) {
+            @Override
+            public boolean isCellEditable(int aRow, int aColumn) {
+                return false;
+            }
+        };
+        panel.add(new JLabel("Measured rule cost (Tools | Measure SwiftLint Rule Cost):"));
+        panel.add(new JBScrollPane(new JBTable(ruleCostsModel)));
+
+        reset();
+
+        return panel;
+    }
+
+    @Override
+    public boolean isModified() {
+        SwiftLintProjectSettings.ProjectState state = SwiftLintProjectSettings.getInstance(_project).copyState();
+        SwiftLintProjectSettings.ProjectState current = currentState();
+
+        return !Objects.equals(state.appPath, current.appPath) ||
+                !Objects.equals(state.quickFixEnabled, current.quickFixEnabled) ||
+                !Objects.equals(state.disableWhenNoConfigPresent, current.disableWhenNoConfigPresent);
+    }
+
+    @Override
+    public void apply() throws ConfigurationException {
+        SwiftLintProjectSettings.getInstance(_project).update(currentState());
+    }
+
+    @Override
+    public void reset() {
+        SwiftLintProjectSettings.ProjectState state = SwiftLintProjectSettings.getInstance(_project).copyState();
+
+        browser.getTextField().setText(state.appPath == null ? "" : state.appPath);
+        quickFixComboBox.setSelectedIndex(overrideToIndex(state.quickFixEnabled));
+        disableWhenNoConfigPresentComboBox.setSelectedIndex(overrideToIndex(state.disableWhenNoConfigPresent));
+
+        Set<String> expensiveRules = RuleProfile.expensiveRules(state.ruleCosts);
+        List<Map.Entry<String, Double>> ruleCosts = new ArrayList<>(state.ruleCosts.entrySet());
+        ruleCosts.sort((aLeft, aRight) -> Double.compare(aRight.getValue(), aLeft.getValue()));
+
+        ruleCostsModel.setRowCount(0);
+        for (Map.Entry<String, Double> ruleCost : ruleCosts) {
+            ruleCostsModel.addRow(new Object[] {
+                    ruleCost.getKey(),
+                    String.format("%.1f", ruleCost.getValue() * 1000),
+                    expensiveRules.contains(ruleCost.getKey()) ? "full" : "fast"
+            });
+        }
+    }
+
+    private SwiftLintProjectSettings.ProjectState currentState() {
+        SwiftLintProjectSettings.ProjectState state = SwiftLintProjectSettings.getInstance(_project).copyState();
+        String appPath = browser.getText().trim();
+        state.appPath = appPath.isEmpty() ? null : appPath;
+        state.quickFixEnabled = indexToOverride(quickFixComboBox.getSelectedIndex());
+        state.disableWhenNoConfigPresent = indexToOverride(disableWhenNoConfigPresentComboBox.getSelectedIndex());
+        return state;
+    }
+
+    private static JPanel labeledRow(String aLabel, JComponent aComponent) {
+        JPanel row = new JPanel(new HorizontalLayout(20, SwingConstants.CENTER));
+        row.add(new JLabel(aLabel));
+        row.add(aComponent);
+        return row;
+    }
+
+    private static int overrideToIndex(Boolean aValue) {
+        return aValue == null ? 0 : (aValue ? 1 : 2);
+    }
+
+    private static Boolean indexToOverride(int aIndex) {
+        return aIndex <= 0 ? null : aIndex == 1;
+    }
+}
@@ -0,0 +1,95 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+// Lints every Swift file of the project in parallel and streams results as files finish
+class ProjectLinter {
+    private ProjectLinter() {
+    }
+
+    // Why the project can't be linted: SwiftLint isn't available or the project has no config and that disables
+    // linting. null when it can.
+    @Nullable
+    static String unavailableReason(@NotNull Project aProject) {
+        SwiftLintSettings.Snapshot settings = SwiftLintSettings.snapshot(aProject);
+        if (settings.disableWhenNoConfigPresent && SwiftLintConfigWatcher.getInstance(aProject).configPath() == null) {
+            return "The project has no .swiftlint.yml and linting without a config is disabled in settings.";
+        }
+        if (!SwiftLintCapabilities.of(settings.appPath).available) {
+            return "Can't run SwiftLint at " + settings.appPath + ". Please check the path in settings.";
+        }
+        return null;
+    }
+
+    // Returns the reason when nothing was linted, see unavailableReason; null otherwise
+    @Nullable
+    static String lint(@NotNull Project aProject, @NotNull ProgressIndicator aIndicator, @NotNull Consumer<ChangedFilesLinter.FileResult> aConsumer) {
+        String unavailableReason = unavailableReason(aProject);
+        if (unavailableReason != null) {
+            return unavailableReason;
+        }
+
+        SwiftLintSettings.Snapshot settings = SwiftLintSettings.snapshot(aProject);
+        SwiftLintConfigWatcher configWatcher = SwiftLintConfigWatcher.getInstance(aProject);
+        String swiftLintConfigPath = configWatcher.configPath();
+        SwiftLintCapabilities capabilities = SwiftLintCapabilities.of(settings.appPath);
+
+        RuleCatalog catalog = RuleCatalog.of(capabilities);
+        ViolationBaseline baseline = ViolationBaseline.getInstance(aProject);
+        ViolationAggregateIndex aggregateIndex = ViolationAggregateIndex.getInstance(aProject);
+
+        List<Callable<ChangedFilesLinter.FileResult>> tasks = new ArrayList<>();
+        for (VirtualFile file : swiftFiles(aProject, configWatcher.config())) {
+            tasks.add(() -> {
+                String text = text(file);
+                List<Violation> violations = baseline.filter(file.getPath(), text,
+                        SwiftLintRunner.lint(capabilities, swiftLintConfigPath, file.getPath(), text), catalog);
+                aggregateIndex.update(file.getPath(), violations, catalog);
+                return new ChangedFilesLinter.FileResult(file.getPath(), Violation.limit(violations, LintOutput.maxViolationsPerFile(), catalog));
+            });
+        }
+
+        aIndicator.setIndeterminate(false);
+        aIndicator.setText("Linting " + tasks.size() + " file(s)");
+        LintExecutor.forEachCompleted(tasks, aIndicator, aConsumer);
+        return null;
+    }
+
+    @NotNull
+    static List<VirtualFile> swiftFiles(@NotNull Project aProject, @NotNull SwiftLintConfig aConfig) {
+        List<VirtualFile> result = new ArrayList<>();
+        ApplicationManager.getApplication().runReadAction(() -> ProjectFileIndex.SERVICE.getInstance(aProject).iterateContent(aFile -> {
+            if (!aFile.isDirectory() && "swift".equalsIgnoreCase(aFile.getExtension()) && !aConfig.isExcluded(aFile.getPath())) {
+                result.add(aFile);
+            }
+            return true;
+        }));
+        return result;
+    }
+
+    // Unsaved editor content when the file is open, so results match what the editor shows
+    @NotNull
+    static String text(@NotNull VirtualFile aFile) throws IOException {
+        String documentText = ApplicationManager.getApplication().runReadAction((Computable<String>) () -> {
+            Document document = FileDocumentManager.getInstance().getCachedDocument(aFile);
+            return document == null ? null : document.getText();
+        });
+        return documentText != null ? documentText : VfsUtilCore.loadText(aFile);
+    }
+}
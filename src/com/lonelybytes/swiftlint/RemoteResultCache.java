@@ -0,0 +1,136 @@
+package com.lonelybytes.swiftlint;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Shared result cache: GET <url>/<key> returns a ViolationCodec payload or 404, PUT <url>/<key> stores one.
+// See ResultCacheServer for a minimal implementation.
+class RemoteResultCache {
+    private static final int CONNECT_TIMEOUT_MS = 300;
+    private static final int READ_TIMEOUT_MS = 1000;
+    private static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+    // After a connection failure the cache is skipped for a while instead of timing out on every file
+    private static final long FAILURE_BACKOFF_MS = 60_000;
+    private static final int MAX_PENDING_WRITES = 256;
+
+    final String baseUrl;
+
+    private final ThreadPoolExecutor _writer;
+    private volatile long _disabledUntil = 0;
+
+    RemoteResultCache(@NotNull String aBaseUrl) {
+        baseUrl = aBaseUrl.endsWith("/") ? aBaseUrl.substring(0, aBaseUrl.length() - 1) : aBaseUrl;
+        _writer = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_PENDING_WRITES), aRunnable -> {
+            Thread thread = new Thread(aRunnable, "SwiftLint remote cache writer");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        _writer.allowCoreThreadTimeOut(true);
+    }
+
+    @Nullable
+    byte[] get(@NotNull String aKey) {
+        if (System.currentTimeMillis() < _disabledUntil) {
+            return null;
+        }
+
+        try {
+            HttpURLConnection connection = open(aKey, "GET");
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                drain(connection);
+                return null;
+            }
+
+            try (InputStream input = connection.getInputStream()) {
+                return readAll(input);
+            }
+        } catch (IOException ex) {
+            _disabledUntil = System.currentTimeMillis() + FAILURE_BACKOFF_MS;
+            return null;
+        }
+    }
+
+    void putAsync(@NotNull String aKey, @NotNull byte[] aPayload) {
+        if (System.currentTimeMillis() < _disabledUntil) {
+            return;
+        }
+
+        _writer.execute(() -> {
+            try {
+                HttpURLConnection connection = open(aKey, "PUT");
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(aPayload.length);
+                connection.setRequestProperty("Content-Type", "application/octet-stream");
+                try (OutputStream output = connection.getOutputStream()) {
+                    output.write(aPayload);
+                }
+                connection.getResponseCode();
+                drain(connection);
+            } catch (IOException ex) {
+                _disabledUntil = System.currentTimeMillis() + FAILURE_BACKOFF_MS;
+            }
+        });
+    }
+
+    void shutdown() {
+        _writer.shutdown();
+    }
+
+    // Lets queued writes finish, for short-lived processes like the command line runner
+    void shutdownAndWait(long aTimeoutMs) {
+        _writer.shutdown();
+        try {
+            _writer.awaitTermination(aTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HttpURLConnection open(String aKey, String aMethod) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/" + aKey).openConnection();
+        connection.setRequestMethod(aMethod);
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        connection.setUseCaches(false);
+        return connection;
+    }
+
+    // Connections are not disconnected, so they stay in the keep-alive pool; that needs the response body read and closed
+    private static void drain(HttpURLConnection aConnection) throws IOException {
+        InputStream input = aConnection.getResponseCode() >= HttpURLConnection.HTTP_BAD_REQUEST ?
+                aConnection.getErrorStream() : aConnection.getInputStream();
+        if (input == null) {
+            return;
+        }
+
+        try (InputStream stream = input) {
+            byte[] buffer = new byte[1024];
+            while (stream.read(buffer) != -1) {
+                // Discard
+            }
+        }
+    }
+
+    private static byte[] readAll(InputStream aInput) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = aInput.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+            if (output.size() > MAX_PAYLOAD_SIZE) {
+                throw new IOException("Lint result is too large");
+            }
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,160 @@
+package com.lonelybytes.swiftlint;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+// Lint results keyed by content hash + config hash + SwiftLint version. Checked in memory first, then in the optional
+// disk directory (used by the command line runner), then in the optional shared remote cache; new results are written
+// back to the remote one asynchronously.
+final class ResultCache {
+    static final ResultCache INSTANCE = new ResultCache();
+
+    private static final int MAX_LOCAL_ENTRIES = 2000;
+
+    private final Map<String, List<Violation>> _local = Collections.synchronizedMap(new LinkedHashMap<String, List<Violation>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<Violation>> aEldest) {
+            return size() > MAX_LOCAL_ENTRIES;
+        }
+    });
+
+    private volatile RemoteResultCache _remote;
+    private volatile File _diskDirectory;
+
+    private ResultCache() {
+    }
+
+    @NotNull
+    static String key(@NotNull String aText, @NotNull String aConfigFingerprint, @NotNull String aVersion) {
+        return ConfigFingerprint.sha256((ConfigFingerprint.sha256(aText.getBytes(StandardCharsets.UTF_8)) + ":" + aConfigFingerprint + ":" + aVersion)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    synchronized void setRemoteUrl(@Nullable String aUrl) {
+        RemoteResultCache remote = _remote;
+        String url = aUrl == null ? "" : aUrl.trim();
+        if (remote != null && remote.baseUrl.equals(url)) {
+            return;
+        }
+
+        if (remote != null) {
+            remote.shutdown();
+        }
+        _remote = url.isEmpty() ? null : new RemoteResultCache(url);
+    }
+
+    synchronized void shutdownRemote(long aTimeoutMs) {
+        RemoteResultCache remote = _remote;
+        _remote = null;
+        if (remote != null) {
+            remote.shutdownAndWait(aTimeoutMs);
+        }
+    }
+
+    void setDiskDirectory(@Nullable File aDirectory) {
+        _diskDirectory = aDirectory;
+    }
+
+    @Nullable
+    List<Violation> get(@NotNull String aKey, @NotNull RuleCatalog aCatalog) {
+        List<Violation> result = _local.get(aKey);
+        if (result != null) {
+            return result;
+        }
+
+        File diskFile = diskFile(aKey);
+        byte[] payload = diskFile == null ? null : readDiskFile(diskFile);
+        boolean fromDisk = payload != null;
+
+        RemoteResultCache remote = _remote;
+        if (payload == null && remote != null) {
+            payload = remote.get(aKey);
+        }
+        if (payload == null) {
+            return null;
+        }
+
+        try {
+            result = Collections.unmodifiableList(ViolationCodec.decode(payload, aCatalog));
+        } catch (IOException | RuntimeException ex) {
+            // A corrupt entry is a miss; the disk copy is dropped so it gets rewritten by the next lint
+            if (fromDisk && !diskFile.delete()) {
+                diskFile.deleteOnExit();
+            }
+            return null;
+        }
+
+        _local.put(aKey, result);
+        if (diskFile != null && !fromDisk) {
+            writeDiskFile(diskFile, payload);
+        }
+        return result;
+    }
+
+    void put(@NotNull String aKey, @NotNull List<Violation> aViolations, @NotNull RuleCatalog aCatalog) {
+        _local.put(aKey, Collections.unmodifiableList(aViolations));
+
+        File diskFile = diskFile(aKey);
+        RemoteResultCache remote = _remote;
+        if (diskFile == null && remote == null) {
+            return;
+        }
+
+        byte[] payload;
+        try {
+            payload = ViolationCodec.encode(aViolations, aCatalog);
+        } catch (IOException ex) {
+            // Kept in memory only
+            return;
+        }
+        if (diskFile != null) {
+            writeDiskFile(diskFile, payload);
+        }
+        if (remote != null) {
+            remote.putAsync(aKey, payload);
+        }
+    }
+
+    void clear() {
+        _local.clear();
+    }
+
+    // Two-level layout keeps directories small: ab/abcdef...
+    @Nullable
+    private File diskFile(@NotNull String aKey) {
+        File directory = _diskDirectory;
+        return directory == null ? null : new File(new File(directory, aKey.substring(0, 2)), aKey);
+    }
+
+    @Nullable
+    private static byte[] readDiskFile(@NotNull File aFile) {
+        try {
+            return aFile.isFile() ? Files.readAllBytes(aFile.toPath()) : null;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private static void writeDiskFile(@NotNull File aFile, @NotNull byte[] aPayload) {
+        try {
+            File directory = aFile.getParentFile();
+            if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+                return;
+            }
+
+            // Concurrent writers of the same key write the same bytes; the move keeps readers from seeing partial files
+            File temporary = File.createTempFile(aFile.getName(), ".tmp", directory);
+            Files.write(temporary.toPath(), aPayload);
+            Files.move(temporary.toPath(), aFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.lonelybytes.swiftlint;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+// Minimal server for the shared result cache protocol used by RemoteResultCache. Stores payloads as files.
+//   java -cp SwiftLint.jar com.lonelybytes.swiftlint.ResultCacheServer [port] [directory]
+public class ResultCacheServer {
+    private static final int DEFAULT_PORT = 8377;
+    private static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final HttpServer _server;
+    private final File _directory;
+
+    public ResultCacheServer(int aPort, File aDirectory) throws IOException {
+        _directory = aDirectory;
+        if (!_directory.isDirectory() && !_directory.mkdirs()) {
+            throw new IOException("Can't create " + _directory);
+        }
+
+        _server = HttpServer.create(new InetSocketAddress(aPort), 0);
+        _server.createContext("/", this::handle);
+        _server.setExecutor(Executors.newFixedThreadPool(4));
+    }
+
+    public void start() {
+        _server.start();
+    }
+
+    public void stop() {
+        _server.stop(0);
+    }
+
+    public int port() {
+        return _server.getAddress().getPort();
+    }
+
+    public static void main(String[] aArguments) throws IOException {
+        int port = aArguments.length > 0 ? Integer.parseInt(aArguments[0]) : DEFAULT_PORT;
+        File directory = aArguments.length > 1 ? new File(aArguments[1]) : Files.createTempDirectory("swiftlint-cache").toFile();
+
+        ResultCacheServer server = new ResultCacheServer(port, directory);
+        server.start();
+        System.out.println("SwiftLint result cache listening on port " + server.port() + ", storing in " + directory);
+    }
+
+    private void handle(HttpExchange aExchange) throws IOException {
+        try {
+            String key = aExchange.getRequestURI().getPath();
+            key = key.substring(key.lastIndexOf('/') + 1);
+            if (!KEY_PATTERN.matcher(key).matches()) {
+                aExchange.sendResponseHeaders(400, -1);
+                return;
+            }
+
+            File file = new File(_directory, key);
+            switch (aExchange.getRequestMethod()) {
+                case "GET":
+                    if (!file.isFile()) {
+                        aExchange.sendResponseHeaders(404, -1);
+                        return;
+                    }
+
+                    byte[] payload = Files.readAllBytes(file.toPath());
+                    aExchange.sendResponseHeaders(200, payload.length);
+                    try (OutputStream output = aExchange.getResponseBody()) {
+                        output.write(payload);
+                    }
+                    break;
+                case "PUT":
+                    File temporary = File.createTempFile(key, ".tmp", _directory);
+                    try (InputStream input = aExchange.getRequestBody(); OutputStream output = new FileOutputStream(temporary)) {
+                        byte[] buffer = new byte[8192];
+                        long total = 0;
+                        int read;
+                        while ((read = input.read(buffer)) != -1) {
+                            total += read;
+                            if (total > MAX_PAYLOAD_SIZE) {
+                                throw new IOException("Payload is too large");
+                            }
+                            output.write(buffer, 0, read);
+                        }
+                    } catch (IOException ex) {
+                        //noinspection ResultOfMethodCallIgnored
+                        temporary.delete();
+                        aExchange.sendResponseHeaders(413, -1);
+                        return;
+                    }
+
+                    Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    aExchange.sendResponseHeaders(201, -1);
+                    break;
+                default:
+                    aExchange.sendResponseHeaders(405, -1);
+                    break;
+            }
+        } finally {
+            aExchange.close();
+        }
+    }
+}
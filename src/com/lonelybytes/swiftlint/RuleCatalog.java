@@ -0,0 +1,149 @@
+package com.lonelybytes.swiftlint;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Rules known to a SwiftLint version, mapped to dense integer ids. Rules first seen in lint output
+// (custom rules, rules of a newer binary) get the next free id.
+class RuleCatalog {
+    private static final ConcurrentMap<String, RuleCatalog> CATALOGS = new ConcurrentHashMap<>();
+
+    // Weak both ways, so strings are shared while some lint result holds them and collected afterwards
+    private static final Map<String, WeakReference<String>> INTERNED_STRINGS = new WeakHashMap<>();
+
+    // Used only when the binary can't list its rules
+    private static final String[] FALLBACK_RULES = {
+            "attributes", "closing_brace", "closure_end_indentation", "closure_parameter_position", "closure_spacing",
+            "colon", "comma", "conditional_returns_on_newline", "control_statement", "custom_rules",
+            "cyclomatic_complexity", "dynamic_inline", "empty_count", "empty_parameters",
+            "empty_parentheses_with_trailing_closure", "explicit_init", "file_header", "file_length", "first_where",
+            "force_cast", "force_try", "force_unwrapping", "function_body_length", "function_parameter_count",
+            "identifier_name", "implicit_getter", "leading_whitespace", "legacy_cggeometry_functions", "legacy_constant",
+            "legacy_constructor", "legacy_nsgeometry_functions", "line_length", "mark", "missing_docs", "nesting",
+            "nimble_operator", "number_separator", "opening_brace", "operator_usage_whitespace", "operator_whitespace",
+            "overridden_super_call", "private_outlet", "private_unit_test", "prohibited_super_call",
+            "redundant_nil_coalescing", "redundant_string_enum_value", "return_arrow_whitespace", "statement_position",
+            "switch_case_on_newline", "syntactic_sugar", "todo", "trailing_comma", "trailing_newline",
+            "trailing_semicolon", "trailing_whitespace", "type_body_length", "type_name", "unused_closure_parameter",
+            "unused_enumerated", "valid_docs", "valid_ibinspectable", "variable_name", "vertical_whitespace",
+            "void_return", "weak_delegate",
+    };
+
+    static final int UNKNOWN = -1;
+
+    final String version;
+
+    private final ConcurrentMap<String, Integer> _ids = new ConcurrentHashMap<>();
+    private volatile String[] _names = new String[0];
+    private final BitSet _optIn = new BitSet();
+    private final BitSet _correctable = new BitSet();
+    private int _listedCount = 0;
+    // false when the binary couldn't list its rules, so opt-in and correctable flags are unknown
+    private boolean _detailed = false;
+
+    private RuleCatalog(String aVersion) {
+        version = aVersion;
+    }
+
+    @NotNull
+    static RuleCatalog of(@NotNull SwiftLintCapabilities aCapabilities) {
+        return CATALOGS.computeIfAbsent(aCapabilities.version, aVersion -> load(aCapabilities));
+    }
+
+    private static RuleCatalog load(SwiftLintCapabilities aCapabilities) {
+        RuleCatalog catalog = new RuleCatalog(aCapabilities.version);
+
+        // identifier | opt-in | correctable | enabled in your config | kind | ...
+        List<String[]> rows = SwiftLintCapabilities.tableRows(aCapabilities.rulesListing);
+        for (String[] row : rows) {
+            int id = catalog.id(row[0]);
+            if (row.length > 1 && "yes".equals(row[1])) {
+                catalog._optIn.set(id);
+            }
+            if (row.length > 2 && "yes".equals(row[2])) {
+                catalog._correctable.set(id);
+            }
+        }
+
+        if (rows.isEmpty()) {
+            for (String rule : FALLBACK_RULES) {
+                catalog.id(rule);
+            }
+        }
+
+        catalog._listedCount = catalog.size();
+        catalog._detailed = !rows.isEmpty();
+        return catalog;
+    }
+
+    int id(@NotNull String aRuleName) {
+        Integer id = _ids.get(aRuleName);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (this) {
+            id = _ids.get(aRuleName);
+            if (id == null) {
+                String[] names = Arrays.copyOf(_names, _names.length + 1);
+                id = names.length - 1;
+                names[id] = intern(aRuleName);
+                _names = names;
+                _ids.put(names[id], id);
+            }
+        }
+
+        return id;
+    }
+
+    int existingId(@NotNull String aRuleName) {
+        Integer id = _ids.get(aRuleName);
+        return id == null ? UNKNOWN : id;
+    }
+
+    @Nullable
+    String name(int aId) {
+        String[] names = _names;
+        return aId >= 0 && aId < names.length ? names[aId] : null;
+    }
+
+    int size() {
+        return _names.length;
+    }
+
+    // false for rules that were first seen in lint output, custom rules in particular
+    boolean isListed(int aId) {
+        return aId >= 0 && aId < _listedCount;
+    }
+
+    boolean isOptIn(int aId) {
+        return _detailed && _optIn.get(aId);
+    }
+
+    // Custom rules and rules first seen in lint output can't be autocorrected
+    boolean isCorrectable(int aId) {
+        return isListed(aId) && (!_detailed || _correctable.get(aId));
+    }
+
+    static String intern(String aString) {
+        if (aString == null) {
+            return null;
+        }
+
+        synchronized (INTERNED_STRINGS) {
+            WeakReference<String> reference = INTERNED_STRINGS.get(aString);
+            String interned = reference == null ? null : reference.get();
+            if (interned != null) {
+                return interned;
+            }
+
+            INTERNED_STRINGS.put(aString, new WeakReference<>(aString));
+            return aString;
+        }
+    }
+}
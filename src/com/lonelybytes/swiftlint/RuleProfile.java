@@ -0,0 +1,126 @@
+package com.lonelybytes.swiftlint;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+// Splits rules by measured cost: the "fast" profile (expensive rules disabled) is used while typing,
+// the full profile on save, when idle and in batch inspections.
+class RuleProfile {
+    // A rule taking more than this share of the total measured lint time is considered expensive
+    private static final double EXPENSIVE_SHARE = 0.05;
+    private static final String CUSTOM_RULES = "custom_rules";
+
+    static final RuleProfile FULL_ONLY = new RuleProfile(Collections.emptySet(), new BitSet(), false, null);
+
+    final Set<String> expensiveRules;
+    final String fastConfigPath;
+
+    private final BitSet _expensiveRuleIds;
+    private final boolean _customRulesExpensive;
+
+    private RuleProfile(Set<String> aExpensiveRules, BitSet aExpensiveRuleIds, boolean aCustomRulesExpensive, String aFastConfigPath) {
+        expensiveRules = aExpensiveRules;
+        _expensiveRuleIds = aExpensiveRuleIds;
+        _customRulesExpensive = aCustomRulesExpensive;
+        fastConfigPath = aFastConfigPath;
+    }
+
+    @NotNull
+    static RuleProfile create(@NotNull Map<String, Double> aRuleCosts, @NotNull SwiftLintCapabilities aCapabilities,
+                              @NotNull RuleCatalog aCatalog, @NotNull SwiftLintConfig aConfig, @Nullable String aConfigPath,
+                              @NotNull File aFastConfigFile) {
+        // Rules the config doesn't run cost nothing; a fast profile without enabled expensive rules would only add lints
+        Set<String> expensiveRules = expensiveRules(aRuleCosts);
+        expensiveRules.removeIf(aRule -> !aConfig.isRuleEnabled(aRule));
+        if (expensiveRules.isEmpty() || (aConfigPath != null && !aCapabilities.supportsParentConfig)) {
+            return FULL_ONLY;
+        }
+
+        BitSet expensiveRuleIds = new BitSet();
+        for (String rule : expensiveRules) {
+            int ruleId = aCatalog.existingId(rule);
+            if (ruleId != RuleCatalog.UNKNOWN) {
+                expensiveRuleIds.set(ruleId);
+            }
+        }
+
+        try {
+            String fastConfigPath = writeFastConfig(aFastConfigFile, expensiveRules, aConfigPath);
+            return new RuleProfile(Collections.unmodifiableSet(expensiveRules), expensiveRuleIds, expensiveRules.contains(CUSTOM_RULES), fastConfigPath);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return FULL_ONLY;
+        }
+    }
+
+    @NotNull
+    static Set<String> expensiveRules(@NotNull Map<String, Double> aRuleCosts) {
+        double total = 0;
+        for (Double cost : aRuleCosts.values()) {
+            total += cost;
+        }
+
+        Set<String> result = new TreeSet<>();
+        if (total <= 0) {
+            return result;
+        }
+
+        for (Map.Entry<String, Double> entry : aRuleCosts.entrySet()) {
+            if (entry.getValue() / total > EXPENSIVE_SHARE) {
+                result.add(entry.getKey());
+            }
+        }
+
+        return result;
+    }
+
+    boolean hasFastProfile() {
+        return fastConfigPath != null;
+    }
+
+    boolean isExpensive(@NotNull Violation aViolation, @NotNull RuleCatalog aCatalog) {
+        return _expensiveRuleIds.get(aViolation.ruleId) || (_customRulesExpensive && !aCatalog.isListed(aViolation.ruleId));
+    }
+
+    @NotNull
+    List<Violation> expensiveOnly(@NotNull List<Violation> aViolations, @NotNull RuleCatalog aCatalog) {
+        List<Violation> result = new ArrayList<>();
+        for (Violation violation : aViolations) {
+            if (isExpensive(violation, aCatalog)) {
+                result.add(violation);
+            }
+        }
+        return result;
+    }
+
+    // Replaces aFile atomically, so a lint that is running with the previous profile never reads a partial file
+    private static String writeFastConfig(@NotNull File aFile, Set<String> aExpensiveRules, @Nullable String aConfigPath) throws IOException {
+        long previousModificationStamp = aFile.lastModified();
+        File temporaryFile = new File(aFile.getParentFile(), aFile.getName() + ".tmp");
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temporaryFile), StandardCharsets.UTF_8)) {
+            if (aConfigPath != null) {
+                writer.write("parent_config: '" + aConfigPath.replace("'", "''") + "'\n");
+            }
+
+            writer.write("disabled_rules:\n");
+            for (String rule : aExpensiveRules) {
+                writer.write("  - " + rule + "\n");
+            }
+        }
+        Files.move(temporaryFile.toPath(), aFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // ConfigFingerprint caches by modification time, which may have a coarse resolution
+        if (aFile.lastModified() <= previousModificationStamp && !aFile.setLastModified(previousModificationStamp + 1000)) {
+            throw new IOException("Can't update " + aFile);
+        }
+
+        return aFile.getAbsolutePath();
+    }
+}
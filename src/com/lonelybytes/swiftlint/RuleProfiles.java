@@ -0,0 +1,82 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+
+public class RuleProfiles {
+    private static class CachedProfile {
+        final Map<String, Double> ruleCosts;
+        final RuleCatalog catalog;
+        final SwiftLintConfig config;
+        final String configPath;
+        final RuleProfile profile;
+
+        CachedProfile(Map<String, Double> aRuleCosts, RuleCatalog aCatalog, SwiftLintConfig aConfig, String aConfigPath, RuleProfile aProfile) {
+            ruleCosts = aRuleCosts;
+            catalog = aCatalog;
+            config = aConfig;
+            configPath = aConfigPath;
+            profile = aProfile;
+        }
+
+        boolean matches(Map<String, Double> aRuleCosts, RuleCatalog aCatalog, SwiftLintConfig aConfig, String aConfigPath) {
+            return ruleCosts == aRuleCosts && catalog == aCatalog && config == aConfig && Objects.equals(configPath, aConfigPath);
+        }
+    }
+
+    private final Project _project;
+    private volatile CachedProfile _cached;
+    // Rewritten whenever the profile changes
+    private File _fastConfigFile;
+
+    public RuleProfiles(@NotNull Project aProject) {
+        _project = aProject;
+    }
+
+    static RuleProfiles getInstance(@NotNull Project aProject) {
+        return ServiceManager.getService(aProject, RuleProfiles.class);
+    }
+
+    @NotNull
+    RuleProfile profile(@NotNull SwiftLintCapabilities aCapabilities, @NotNull RuleCatalog aCatalog, @Nullable String aConfigPath) {
+        Map<String, Double> ruleCosts = SwiftLintProjectSettings.getInstance(_project).ruleCosts();
+        SwiftLintConfig config = SwiftLintConfigWatcher.getInstance(_project).config();
+
+        CachedProfile cached = _cached;
+        if (cached != null && cached.matches(ruleCosts, aCatalog, config, aConfigPath)) {
+            return cached.profile;
+        }
+
+        synchronized (this) {
+            cached = _cached;
+            if (cached != null && cached.matches(ruleCosts, aCatalog, config, aConfigPath)) {
+                return cached.profile;
+            }
+
+            RuleProfile profile;
+            try {
+                profile = RuleProfile.create(ruleCosts, aCapabilities, aCatalog, config, aConfigPath, fastConfigFile());
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                profile = RuleProfile.FULL_ONLY;
+            }
+            _cached = new CachedProfile(ruleCosts, aCatalog, config, aConfigPath, profile);
+            return profile;
+        }
+    }
+
+    private File fastConfigFile() throws IOException {
+        if (_fastConfigFile == null) {
+            _fastConfigFile = File.createTempFile("swiftlint-fast", ".yml");
+            _fastConfigFile.deleteOnExit();
+        }
+        return _fastConfigFile;
+    }
+}
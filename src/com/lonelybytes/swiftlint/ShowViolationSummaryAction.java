@@ -0,0 +1,30 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.Project;
+
+// Worst offending directories, from the aggregate of the latest lint results
+public class ShowViolationSummaryAction extends AnAction {
+    private static final int DIRECTORIES_IN_REPORT = 15;
+    private static final int RULES_PER_DIRECTORY = 3;
+
+    @Override
+    public void update(AnActionEvent aEvent) {
+        aEvent.getPresentation().setEnabled(aEvent.getProject() != null);
+    }
+
+    @Override
+    public void actionPerformed(AnActionEvent aEvent) {
+        Project project = aEvent.getProject();
+        if (project == null) {
+            return;
+        }
+
+        String report = ViolationAggregateIndex.getInstance(project).report(DIRECTORIES_IN_REPORT, RULES_PER_DIRECTORY);
+        Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "SwiftLint summary", report, NotificationType.INFORMATION), project);
+    }
+}
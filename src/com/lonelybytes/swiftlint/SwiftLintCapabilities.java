@@ -0,0 +1,193 @@
+package com.lonelybytes.swiftlint;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// What the installed SwiftLint binary can do. Probed once per binary path and re-probed when the binary changes.
+class SwiftLintCapabilities {
+    private static final ConcurrentMap<String, SwiftLintCapabilities> CACHE = new ConcurrentHashMap<>();
+
+    final String appPath;
+    final long modificationStamp;
+
+    final boolean available;
+    final String version;
+    final boolean supportsStdin;
+    final boolean supportsConfig;
+    final boolean supportsReporter;
+    final boolean supportsAutocorrectPath;
+    final boolean supportsLintFix;
+    final boolean supportsBenchmark;
+    final boolean supportsParentConfig;
+    final String rulesListing;
+
+    private SwiftLintCapabilities(String aAppPath, long aModificationStamp, boolean aAvailable, String aVersion, Set<String> aReporters,
+                                  String aLintHelp, String aAutocorrectHelp, String aRulesListing) {
+        appPath = aAppPath;
+        modificationStamp = aModificationStamp;
+        available = aAvailable;
+        version = aVersion;
+        supportsStdin = aLintHelp.contains("--use-stdin");
+        supportsConfig = aLintHelp.contains("--config");
+        // Output is parsed as the "xcode" reporter's, which is the default one
+        supportsReporter = aLintHelp.contains("--reporter") && aReporters.contains("xcode");
+        supportsLintFix = aLintHelp.contains("--fix");
+        supportsAutocorrectPath = aAutocorrectHelp.contains("--path");
+        supportsBenchmark = aLintHelp.contains("--benchmark");
+        supportsParentConfig = isAtLeast(aVersion, 0, 42);
+        rulesListing = aRulesListing;
+    }
+
+    @NotNull
+    static SwiftLintCapabilities of(@NotNull String aAppPath) {
+        long modificationStamp = new File(aAppPath).lastModified();
+
+        SwiftLintCapabilities cached = CACHE.get(aAppPath);
+        if (cached != null && cached.modificationStamp == modificationStamp) {
+            return cached;
+        }
+
+        // Probing starts several processes, so it doesn't run inside the map where it would block other callers.
+        // Callers racing on the same binary may each probe it; the first published result is used.
+        SwiftLintCapabilities probed = probe(aAppPath, modificationStamp);
+        boolean published = cached == null ? CACHE.putIfAbsent(aAppPath, probed) == null : CACHE.replace(aAppPath, cached, probed);
+        if (!published) {
+            SwiftLintCapabilities current = CACHE.get(aAppPath);
+            return current != null && current.modificationStamp == modificationStamp ? current : probed;
+        }
+
+        if (!probed.available) {
+            Utils.notifyError("Can't find swiftlint utility here:\n" + aAppPath + "\nPlease check the path in settings.", true);
+        }
+        return probed;
+    }
+
+    @NotNull
+    String[] lintOptions(@Nullable String aConfigPath, @NotNull String aFilePath) {
+        List<String> options = new ArrayList<>();
+        options.add("lint");
+
+        if (aConfigPath != null && supportsConfig) {
+            options.add("--config");
+            options.add(aConfigPath);
+        }
+
+        if (supportsReporter) {
+            options.add("--reporter");
+            options.add("xcode");
+        }
+
+        if (supportsStdin) {
+            options.add("--use-stdin");
+        } else {
+            options.add("--path");
+            options.add(aFilePath);
+        }
+
+        return options.toArray(new String[0]);
+    }
+
+    @Nullable
+    String[] autocorrectOptions(@Nullable String aConfigPath, @NotNull String aFilePath) {
+        List<String> options = new ArrayList<>();
+        if (supportsAutocorrectPath) {
+            options.add("autocorrect");
+        } else if (supportsLintFix) {
+            options.add("lint");
+            options.add("--fix");
+        } else {
+            return null;
+        }
+
+        if (aConfigPath != null && supportsConfig) {
+            options.add("--config");
+            options.add(aConfigPath);
+        }
+
+        if (supportsAutocorrectPath) {
+            options.add("--path");
+        }
+        options.add(aFilePath);
+
+        return options.toArray(new String[0]);
+    }
+
+    private static boolean isAtLeast(String aVersion, int aMajor, int aMinor) {
+        String[] components = aVersion.split("[^0-9]+");
+        try {
+            int major = components.length > 0 && !components[0].isEmpty() ? Integer.parseInt(components[0]) : 0;
+            int minor = components.length > 1 ? Integer.parseInt(components[1]) : 0;
+            return major > aMajor || (major == aMajor && minor >= aMinor);
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private static SwiftLintCapabilities probe(String aAppPath, long aModificationStamp) {
+        String version;
+        try {
+            version = Utils.executeCommand(aAppPath, new String[] { "version" }, null).trim();
+        } catch (IOException ex) {
+            return new SwiftLintCapabilities(aAppPath, aModificationStamp, false, "", Collections.emptySet(), "", "", "");
+        }
+
+        String lintHelp = probeOutput(aAppPath, "help", "lint");
+        String autocorrectHelp = probeOutput(aAppPath, "help", "autocorrect");
+        String reportersListing = probeOutput(aAppPath, "reporters");
+        String rulesListing = probeOutput(aAppPath, "rules");
+
+        Set<String> reporters = new HashSet<>();
+        for (String[] row : tableRows(reportersListing)) {
+            reporters.add(row[0]);
+        }
+        if (reporters.isEmpty()) {
+            reporters.add("xcode");
+        }
+
+        return new SwiftLintCapabilities(aAppPath, aModificationStamp, true, version, reporters, lintHelp, autocorrectHelp, rulesListing);
+    }
+
+    private static String probeOutput(String aAppPath, String... aOptions) {
+        try {
+            return Utils.executeCommand(aAppPath, aOptions, null);
+        } catch (IOException ex) {
+            return "";
+        }
+    }
+
+    // Rows of the ASCII tables printed by "swiftlint rules" and "swiftlint reporters", header excluded.
+    static List<String[]> tableRows(@NotNull String aListing) {
+        List<String[]> result = new ArrayList<>();
+        boolean headerSkipped = false;
+
+        Scanner scanner = new Scanner(aListing);
+        while (scanner.hasNextLine()) {
+            String line = scanner.nextLine().trim();
+            if (!line.startsWith("|")) {
+                continue;
+            }
+
+            if (!headerSkipped) {
+                headerSkipped = true;
+                continue;
+            }
+
+            String[] cells = line.substring(1).split("\\|");
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = cells[i].trim();
+            }
+
+            if (cells.length > 0 && !cells[0].isEmpty()) {
+                result.add(cells);
+            }
+        }
+
+        return result;
+    }
+}
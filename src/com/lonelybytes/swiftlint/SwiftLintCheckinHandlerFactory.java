@@ -0,0 +1,106 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vcs.CheckinProjectPanel;
+import com.intellij.openapi.vcs.changes.CommitContext;
+import com.intellij.openapi.vcs.checkin.CheckinHandler;
+import com.intellij.openapi.vcs.checkin.CheckinHandlerFactory;
+import com.intellij.openapi.vcs.ui.RefreshableOnComponent;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.panels.VerticalLayout;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+
+// "Lint with SwiftLint" option of the commit dialog: lints the Swift files being committed before the commit
+public class SwiftLintCheckinHandlerFactory extends CheckinHandlerFactory {
+    @NotNull
+    @Override
+    public CheckinHandler createHandler(@NotNull CheckinProjectPanel aPanel, @NotNull CommitContext aCommitContext) {
+        return new SwiftLintCheckinHandler(aPanel);
+    }
+
+    private static class SwiftLintCheckinHandler extends CheckinHandler {
+        private final CheckinProjectPanel _panel;
+        private final Project _project;
+
+        SwiftLintCheckinHandler(@NotNull CheckinProjectPanel aPanel) {
+            _panel = aPanel;
+            _project = aPanel.getProject();
+        }
+
+        @Override
+        public RefreshableOnComponent getBeforeCheckinConfigurationPanel() {
+            JBCheckBox lintCheckBox = new JBCheckBox("Lint with SwiftLint");
+            JBCheckBox changedLinesOnlyCheckBox = new JBCheckBox("Only changed lines");
+            lintCheckBox.addActionListener(aEvent -> changedLinesOnlyCheckBox.setEnabled(lintCheckBox.isSelected()));
+
+            JPanel panel = new JPanel(new VerticalLayout(2, SwingConstants.LEFT));
+            panel.add(lintCheckBox);
+            panel.add(changedLinesOnlyCheckBox);
+
+            return new RefreshableOnComponent() {
+                @Override
+                public JComponent getComponent() {
+                    return panel;
+                }
+
+                @Override
+                public void refresh() {
+                }
+
+                @Override
+                public void saveState() {
+                    SwiftLintProjectSettings.getInstance(_project).updateCommitCheck(lintCheckBox.isSelected(), changedLinesOnlyCheckBox.isSelected());
+                }
+
+                @Override
+                public void restoreState() {
+                    SwiftLintProjectSettings settings = SwiftLintProjectSettings.getInstance(_project);
+                    lintCheckBox.setSelected(settings.isLintBeforeCommit());
+                    changedLinesOnlyCheckBox.setSelected(settings.isChangedLinesOnly());
+                    changedLinesOnlyCheckBox.setEnabled(settings.isLintBeforeCommit());
+                }
+            };
+        }
+
+        @Override
+        public ReturnResult beforeCheckin() {
+            SwiftLintProjectSettings settings = SwiftLintProjectSettings.getInstance(_project);
+            if (!settings.isLintBeforeCommit()) {
+                return ReturnResult.COMMIT;
+            }
+
+            ChangedFilesLinter.Result result;
+            try {
+                result = ProgressManager.getInstance().runProcessWithProgressSynchronously(() ->
+                        ChangedFilesLinter.lint(_project, _panel.getSelectedChanges(), settings.isChangedLinesOnly(),
+                                ProgressManager.getInstance().getProgressIndicator()), "Linting with SwiftLint", true, _project);
+            } catch (ProcessCanceledException ex) {
+                return ReturnResult.CANCEL;
+            }
+
+            if (result == null || result.violationCount == 0) {
+                return ReturnResult.COMMIT;
+            }
+
+            int answer = Messages.showYesNoDialog(_project,
+                    String.format("SwiftLint found %d violation(s), %d error(s) in %d file(s).\nCommit anyway?",
+                            result.violationCount, result.errorCount, result.files.size()),
+                    "SwiftLint", "Commit", "Review", Messages.getWarningIcon());
+            if (answer == Messages.YES) {
+                return ReturnResult.COMMIT;
+            }
+
+            Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "SwiftLint: changed files", result.report(),
+                    result.errorCount > 0 ? NotificationType.ERROR : NotificationType.WARNING), _project);
+            return ReturnResult.CLOSE_WINDOW;
+        }
+    }
+}
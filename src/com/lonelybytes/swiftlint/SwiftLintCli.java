@@ -0,0 +1,293 @@
+package com.lonelybytes.swiftlint;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Lints a project without the IDE, with the same config lookup, exclusions, baseline and result caches as the plugin.
+//   java -cp SwiftLint.jar:snakeyaml.jar com.lonelybytes.swiftlint.SwiftLintCli <project root> [options]
+// Exits with 1 on failure, including files that couldn't be linted, 2 when there are error violations, 0 otherwise.
+public class SwiftLintCli {
+    private static final String USAGE = "Usage: SwiftLintCli <project root>\n" +
+            "  [--swiftlint <path>]      SwiftLint executable, found in PATH by default\n" +
+            "  [--config <path>]         .swiftlint.yml, looked up in the project by default\n" +
+            "  [--jobs <count>]          SwiftLint processes at once, number of cores by default\n" +
+            "  [--format sarif|json]     sarif by default\n" +
+            "  [--output <path>]         stdout by default\n" +
+            "  [--cache-dir <path>]      results cache kept between runs\n" +
+            "  [--remote-cache <url>]    shared results cache\n" +
+            "  [--no-baseline]           report violations recorded in .swiftlint-baseline too\n" +
+            "  [--max-violations <count>] violations reported per file, " + LintOutput.DEFAULT_MAX_VIOLATIONS_PER_FILE + " by default";
+
+    private static final int CONFIG_SEARCH_DEPTH = 5;
+    private static final long REMOTE_CACHE_FLUSH_TIMEOUT_MS = 10000;
+
+    private static class Options {
+        File root;
+        String appPath;
+        String configPath;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        String format = "sarif";
+        File output;
+        File cacheDirectory;
+        String remoteCacheUrl;
+        boolean useBaseline = true;
+        int maxViolationsPerFile = LintOutput.DEFAULT_MAX_VIOLATIONS_PER_FILE;
+    }
+
+    public static void main(String[] aArguments) {
+        Utils.headless = true;
+
+        Options options;
+        try {
+            options = parseOptions(aArguments);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        try {
+            System.exit(run(options));
+        } catch (IOException ex) {
+            System.err.println("SwiftLint run failed: " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static int run(Options aOptions) throws IOException {
+        SwiftLintCapabilities capabilities = SwiftLintCapabilities.of(aOptions.appPath);
+        if (!capabilities.available) {
+            return 1;
+        }
+
+        String configPath = aOptions.configPath != null ? aOptions.configPath : SwiftLintConfig.swiftLintConfigPath(aOptions.root, CONFIG_SEARCH_DEPTH);
+        RuleCatalog catalog = RuleCatalog.of(capabilities);
+        SwiftLintConfig config = new SwiftLintConfig(configPath, catalog);
+        ViolationBaseline baseline = aOptions.useBaseline ? new ViolationBaseline(aOptions.root.getPath()) : null;
+
+        LintOutput.setLimits(LintOutput.DEFAULT_MEMORY_LIMIT_KB, aOptions.maxViolationsPerFile);
+        ResultCache.INSTANCE.setDiskDirectory(aOptions.cacheDirectory);
+        ResultCache.INSTANCE.setRemoteUrl(aOptions.remoteCacheUrl);
+
+        List<File> files = swiftFiles(aOptions.root, config);
+
+        @SuppressWarnings("unchecked")
+        List<Violation>[] results = new List[files.size()];
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, aOptions.jobs));
+        try {
+            pool.invoke(new LintFiles(files, results, 0, files.size(), capabilities, configPath, catalog, baseline));
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<String, List<Violation>> report = new LinkedHashMap<>();
+        int violationCount = 0;
+        int errorCount = 0;
+        int failedCount = 0;
+        for (int i = 0; i < files.size(); i++) {
+            if (results[i] == null) {
+                failedCount++;
+                continue;
+            }
+            if (results[i].isEmpty()) {
+                continue;
+            }
+
+            report.put(relativePath(aOptions.root, files.get(i)), results[i]);
+            violationCount += results[i].size();
+            for (Violation violation : results[i]) {
+                if (violation.severity == Violation.SEVERITY_ERROR) {
+                    errorCount++;
+                }
+            }
+        }
+
+        try (Writer writer = aOptions.output == null ?
+                new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8)) :
+                Files.newBufferedWriter(aOptions.output.toPath(), StandardCharsets.UTF_8)) {
+            if ("json".equals(aOptions.format)) {
+                LintReportWriter.writeJson(writer, report, catalog);
+            } else {
+                LintReportWriter.writeSarif(writer, report, catalog, capabilities.version);
+            }
+        }
+
+        ResultCache.INSTANCE.shutdownRemote(REMOTE_CACHE_FLUSH_TIMEOUT_MS);
+
+        System.err.println(String.format("%d violation(s), %d error(s) in %d of %d file(s)", violationCount, errorCount, report.size(), files.size()));
+        if (failedCount > 0) {
+            // The report is incomplete, so it can't pass a CI check
+            System.err.println(String.format("%d file(s) couldn't be linted", failedCount));
+            return 1;
+        }
+        return errorCount > 0 ? 2 : 0;
+    }
+
+    // Splits the range until it's a single file; idle workers steal the other halves
+    private static class LintFiles extends RecursiveAction {
+        private final List<File> _files;
+        private final List<Violation>[] _results;
+        private final int _from;
+        private final int _to;
+        private final SwiftLintCapabilities _capabilities;
+        private final String _configPath;
+        private final RuleCatalog _catalog;
+        private final ViolationBaseline _baseline;
+
+        LintFiles(List<File> aFiles, List<Violation>[] aResults, int aFrom, int aTo, SwiftLintCapabilities aCapabilities,
+                  String aConfigPath, RuleCatalog aCatalog, ViolationBaseline aBaseline) {
+            _files = aFiles;
+            _results = aResults;
+            _from = aFrom;
+            _to = aTo;
+            _capabilities = aCapabilities;
+            _configPath = aConfigPath;
+            _catalog = aCatalog;
+            _baseline = aBaseline;
+        }
+
+        @Override
+        protected void compute() {
+            if (_to - _from > 1) {
+                int middle = (_from + _to) >>> 1;
+                invokeAll(new LintFiles(_files, _results, _from, middle, _capabilities, _configPath, _catalog, _baseline),
+                        new LintFiles(_files, _results, middle, _to, _capabilities, _configPath, _catalog, _baseline));
+                return;
+            }
+
+            if (_to - _from == 1) {
+                _results[_from] = lint(_files.get(_from));
+            }
+        }
+
+        // null when the file couldn't be linted
+        private List<Violation> lint(File aFile) {
+            try {
+                String text = new String(Files.readAllBytes(aFile.toPath()), StandardCharsets.UTF_8);
+                List<Violation> violations = SwiftLintRunner.lint(_capabilities, _configPath, aFile.getPath(), text);
+                if (_baseline != null) {
+                    violations = _baseline.filter(aFile.getPath(), text, violations, _catalog);
+                }
+                return Violation.limit(violations, LintOutput.maxViolationsPerFile(), _catalog);
+            } catch (IOException ex) {
+                System.err.println("Can't lint " + aFile + ": " + ex.getMessage());
+                return null;
+            }
+        }
+    }
+
+    // Hidden directories (.git, .build) are skipped, like excluded directories of the config
+    private static List<File> swiftFiles(File aRoot, SwiftLintConfig aConfig) throws IOException {
+        List<File> result = new ArrayList<>();
+        Path root = aRoot.toPath();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path aDirectory, BasicFileAttributes aAttributes) {
+                boolean skip = !aDirectory.equals(root) &&
+                        (aDirectory.getFileName().toString().startsWith(".") || aConfig.isExcluded(aDirectory.toString()));
+                return skip ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path aFile, BasicFileAttributes aAttributes) {
+                if (aAttributes.isRegularFile() && aFile.toString().endsWith(".swift") && !aConfig.isExcluded(aFile.toString())) {
+                    result.add(aFile.toFile());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        Collections.sort(result);
+        return result;
+    }
+
+    private static String relativePath(File aRoot, File aFile) {
+        return aRoot.toPath().relativize(aFile.toPath()).toString().replace(File.separatorChar, '/');
+    }
+
+    private static Options parseOptions(String[] aArguments) {
+        Options result = new Options();
+        for (int i = 0; i < aArguments.length; i++) {
+            String argument = aArguments[i];
+            switch (argument) {
+                case "--swiftlint":
+                    result.appPath = value(aArguments, ++i, argument);
+                    break;
+                case "--config":
+                    result.configPath = new File(value(aArguments, ++i, argument)).getAbsolutePath();
+                    break;
+                case "--jobs":
+                    try {
+                        result.jobs = Integer.parseInt(value(aArguments, ++i, argument));
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("--jobs needs a number");
+                    }
+                    break;
+                case "--format":
+                    result.format = value(aArguments, ++i, argument);
+                    if (!result.format.equals("sarif") && !result.format.equals("json")) {
+                        throw new IllegalArgumentException("Unknown format: " + result.format);
+                    }
+                    break;
+                case "--output":
+                    result.output = new File(value(aArguments, ++i, argument));
+                    break;
+                case "--cache-dir":
+                    result.cacheDirectory = new File(value(aArguments, ++i, argument));
+                    break;
+                case "--remote-cache":
+                    result.remoteCacheUrl = value(aArguments, ++i, argument);
+                    break;
+                case "--no-baseline":
+                    result.useBaseline = false;
+                    break;
+                case "--max-violations":
+                    try {
+                        result.maxViolationsPerFile = Integer.parseInt(value(aArguments, ++i, argument));
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("--max-violations needs a number");
+                    }
+                    break;
+                default:
+                    if (argument.startsWith("--") || result.root != null) {
+                        throw new IllegalArgumentException("Unexpected argument: " + argument);
+                    }
+                    result.root = new File(argument).getAbsoluteFile();
+            }
+        }
+
+        if (result.root == null || !result.root.isDirectory()) {
+            throw new IllegalArgumentException("Project root directory is required");
+        }
+        if (result.appPath == null) {
+            result.appPath = findInPath("swiftlint");
+        }
+        return result;
+    }
+
+    private static String value(String[] aArguments, int aIndex, String aOption) {
+        if (aIndex >= aArguments.length) {
+            throw new IllegalArgumentException(aOption + " needs a value");
+        }
+        return aArguments[aIndex];
+    }
+
+    private static String findInPath(String aName) {
+        String path = System.getenv("PATH");
+        if (path != null) {
+            for (String directory : path.split(File.pathSeparator)) {
+                File file = new File(directory, aName);
+                if (file.canExecute()) {
+                    return file.getAbsolutePath();
+                }
+            }
+        }
+        return Configuration.DEFAULT_SWIFTLINT_PATH;
+    }
+}
@@ -3,156 +3,218 @@ package com.lonelybytes.swiftlint;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.antlr.v4.runtime.misc.Nullable;
+import org.jetbrains.annotations.NotNull;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
 
 class SwiftLintConfig {
-    private Map<String, Boolean> enabledRules = new HashMap<>();
-    private Map<String, Boolean> disabledRules = new HashMap<>();
-
-    private String _configPath = null;
-
-    static final String[][] rules = {
-            {"attributes", "Attributes should be on their own lines in functions and types, but on the same line as variables and imports."},
-            {"closing_brace", "Closing brace with closing parenthesis should not have any whitespaces in the middle."},
-            {"closure_end_indentation", ""},
-            {"closure_parameter_position", ""},
-            {"closure_spacing", ""},
-            {"colon", ""},
-            {"comma", ""},
-            {"conditional_returns_on_newline", ""},
-            {"control_statement", ""},
-            {"custom_rules", ""},
-            {"cyclomatic_complexity", ""},
-            {"dynamic_inline", ""},
-            {"empty_count", ""},
-            {"empty_parameters", ""},
-            {"empty_parentheses_with_trailing_closure", ""},
-            {"explicit_init", ""},
-            {"file_header", ""},
-            {"file_length", ""},
-            {"first_where", ""},
-            {"force_cast", ""},
-            {"force_try", ""},
-            {"force_unwrapping", ""},
-            {"function_body_length", ""},
-            {"function_parameter_count", ""},
-            {"implicit_getter", ""},
-            {"leading_whitespace", ""},
-            {"legacy_cggeometry_functions", ""},
-            {"legacy_constant", ""},
-            {"legacy_constructor", ""},
-            {"legacy_nsgeometry_functions", ""},
-            {"line_length", ""},
-            {"mark", ""},
-            {"missing_docs", ""},
-            {"nesting", ""},
-            {"nimble_operator", ""},
-            {"number_separator", ""},
-            {"opening_brace", ""},
-            {"operator_usage_whitespace", ""},
-            {"operator_whitespace", ""},
-            {"overridden_super_call", ""},
-            {"private_outlet", ""},
-            {"private_unit_test", ""},
-            {"prohibited_super_call", ""},
-            {"redundant_nil_coalescing", ""},
-            {"redundant_string_enum_value", ""},
-            {"return_arrow_whitespace", ""},
-            {"statement_position", ""},
-            {"switch_case_on_newline", ""},
-            {"syntactic_sugar", ""},
-            {"todo", ""},
-            {"trailing_comma", ""},
-            {"trailing_newline", ""},
-            {"trailing_semicolon", ""},
-            {"trailing_whitespace", ""},
-            {"type_body_length", ""},
-            {"type_name", ""},
-            {"unused_closure_parameter", ""},
-            {"unused_enumerated", ""},
-            {"valid_docs", ""},
-            {"valid_ibinspectable", ""},
-            {"variable_name", ""},
-            {"vertical_whitespace", ""},
-            {"void_return", ""},
-            {"weak_delegate", ""},
-    };
-
-    private static List<String> ruleNames = new ArrayList<String>() {{
-        for (String[] rule : rules) {
-            add(rule[0]);
-        }
-    }};
-
-    private static Map<String, String> ruleToDescription = new HashMap<String, String>() {{
-        for (String[] rule : rules) {
-            put(rule[0], rule[1]);
-        }
-    }};
+    private final RuleCatalog _catalog;
 
     static enum Severity {
         Disabled, Warning, Error
     }
 
-    // true for enabled rule, false for disabled
-    private Map<String, Severity> rulesSeverity = new HashMap<>();
+    // Indexed by rule id: rules the config sets a severity for, and which of them it enables
+    private final BitSet _configuredRules = new BitSet();
+    private final BitSet _enabledRules = new BitSet();
+
+    // Top-level entries of the config as parsed, used to find what changed between two versions of it
+    private final Map<String, Object> _raw;
+    private final String _configDirectory;
+    private final List<String> _included;
+    private final List<String> _excluded;
 
-    @SuppressWarnings("unchecked")
     SwiftLintConfig(Project aProject) {
-        String swiftLintConfigPath = swiftLintConfigPath(aProject, 6);
-        if (swiftLintConfigPath != null) {
+        this(aProject, RuleCatalog.of(SwiftLintCapabilities.of(SwiftLintSettings.snapshot(aProject).appPath)));
+    }
+
+    SwiftLintConfig(Project aProject, RuleCatalog aCatalog) {
+        this(swiftLintConfigPath(aProject, 5), aCatalog);
+    }
+
+    @SuppressWarnings("unchecked")
+    SwiftLintConfig(@Nullable String aSwiftLintConfigPath, RuleCatalog aCatalog) {
+        _catalog = aCatalog;
+
+        Map<String, Object> config = null;
+        if (aSwiftLintConfigPath != null) {
             try {
                 Yaml yaml = new Yaml();
-                @SuppressWarnings("unchecked")
-                Map<String, Object> config = (Map<String, Object>) yaml.load(new BufferedInputStream(new FileInputStream(new File(swiftLintConfigPath))));
-
-                List<String> disabledRules = (List<String>) config.get("disabled_rules");
-                processDisabledRules(disabledRules);
-                List<String> optInRules = (List<String>) config.get("opt_in_rules");
-                processOptInRules(optInRules);
-
-                for (Map.Entry<String, Object> entry : config.entrySet()) {
-                    if (entry.getValue() instanceof String) {
-                        String value = (String) entry.getValue();
-
-                        if (value.equals("error")) {
-                            setRuleSeverity(entry.getKey(), Severity.Error);
-                        } else if (value.equals("warning")) {
-                            setRuleSeverity(entry.getKey(), Severity.Warning);
-                        }
-                    } else if (entry.getValue() instanceof Map) {
-                        Map<String, Object> values = (Map<String, Object>) entry.getValue();
-                        for (Map.Entry<String, Object> valueEntry : values.entrySet()) {
-                            String ruleName = valueEntry.getKey();
-
-                            if (ruleName.equals("severity")) {
-                                if (valueEntry.getValue().equals("error")) {
-                                    setRuleSeverity(ruleName, Severity.Error);
-                                } else if (valueEntry.getValue().equals("warning")) {
-                                    setRuleSeverity(ruleName, Severity.Warning);
-                                } else if (valueEntry.getValue().equals("disabled")) {
-                                    setRuleSeverity(ruleName, Severity.Disabled);
-                                }
-                            }
-                        }
-                    }
+                Object loaded = yaml.load(new BufferedInputStream(new FileInputStream(new File(aSwiftLintConfigPath))));
+                if (loaded instanceof Map) {
+                    config = (Map<String, Object>) loaded;
                 }
             } catch (FileNotFoundException aE) {
                 aE.printStackTrace();
+            } catch (RuntimeException aE) {
+                // Malformed YAML, SwiftLint will report it
+                aE.printStackTrace();
+            }
+        }
+
+        _raw = config == null ? Collections.emptyMap() : config;
+        _configDirectory = aSwiftLintConfigPath == null ? null : new File(aSwiftLintConfigPath).getParent();
+        _included = stringList(_raw.get("included"));
+        _excluded = stringList(_raw.get("excluded"));
+
+        if (config == null) {
+            return;
+        }
+
+        processDisabledRules(stringList(config.get("disabled_rules")));
+        processOptInRules(stringList(config.get("opt_in_rules")));
+
+        for (Map.Entry<String, Object> entry : config.entrySet()) {
+            if (entry.getValue() instanceof String) {
+                String value = (String) entry.getValue();
+
+                if (value.equals("error")) {
+                    setRuleSeverity(entry.getKey(), Severity.Error);
+                } else if (value.equals("warning")) {
+                    setRuleSeverity(entry.getKey(), Severity.Warning);
+                }
+            } else if (entry.getValue() instanceof Map) {
+                Map<String, Object> values = (Map<String, Object>) entry.getValue();
+                for (Map.Entry<String, Object> valueEntry : values.entrySet()) {
+                    String ruleName = entry.getKey();
+
+                    if (valueEntry.getKey().equals("severity")) {
+                        if ("error".equals(valueEntry.getValue())) {
+                            setRuleSeverity(ruleName, Severity.Error);
+                        } else if ("warning".equals(valueEntry.getValue())) {
+                            setRuleSeverity(ruleName, Severity.Warning);
+                        } else if ("disabled".equals(valueEntry.getValue())) {
+                            setRuleSeverity(ruleName, Severity.Disabled);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Keys listing rule names whose effect isChangedRules can tell; "included" and "excluded" are handled by isExcluded
+    private static final Set<String> RULE_LIST_KEYS = new HashSet<>(Arrays.asList("disabled_rules", "opt_in_rules"));
+    static final Set<String> PATH_KEYS = new HashSet<>(Arrays.asList("included", "excluded"));
+    static final String CUSTOM_RULES = "custom_rules";
+
+    // Names of the rules affected by the changed keys: rules added to or removed from a rule list, and rules whose
+    // configuration changed. null when a key isn't known to affect specific rules only, e.g. "only_rules" or
+    // "warning_threshold".
+    @Nullable
+    static Set<String> changedRules(@NotNull SwiftLintConfig aOld, @NotNull SwiftLintConfig aNew, @NotNull Set<String> aChangedKeys) {
+        Set<String> result = new TreeSet<>();
+        for (String key : aChangedKeys) {
+            if (PATH_KEYS.contains(key)) {
+                continue;
+            }
+
+            if (RULE_LIST_KEYS.contains(key)) {
+                Set<String> oldRules = new HashSet<>(stringList(aOld._raw.get(key)));
+                Set<String> newRules = new HashSet<>(stringList(aNew._raw.get(key)));
+                for (String rule : oldRules) {
+                    if (!newRules.contains(rule)) {
+                        result.add(rule);
+                    }
+                }
+                for (String rule : newRules) {
+                    if (!oldRules.contains(rule)) {
+                        result.add(rule);
+                    }
+                }
+            } else if (key.equals(CUSTOM_RULES) || aNew._catalog.existingId(key) != RuleCatalog.UNKNOWN) {
+                result.add(key);
+            } else {
+                return null;
+            }
+        }
+
+        return result;
+    }
+
+    // Top-level keys whose values differ between the two configs
+    @NotNull
+    static Set<String> changedKeys(@NotNull SwiftLintConfig aOld, @NotNull SwiftLintConfig aNew) {
+        Set<String> result = new TreeSet<>();
+        Set<String> keys = new HashSet<>(aOld._raw.keySet());
+        keys.addAll(aNew._raw.keySet());
+
+        for (String key : keys) {
+            if (!Objects.equals(aOld._raw.get(key), aNew._raw.get(key))) {
+                result.add(key);
+            }
+        }
+
+        return result;
+    }
+
+    // "included" and "excluded" are relative to the config directory. SwiftLint can't apply them to stdin input.
+    boolean isExcluded(@NotNull String aFilePath) {
+        if (_configDirectory == null) {
+            return false;
+        }
+
+        for (String excluded : _excluded) {
+            if (matches(aFilePath, excluded)) {
+                return true;
+            }
+        }
+
+        if (_included.isEmpty()) {
+            return false;
+        }
+
+        for (String included : _included) {
+            if (matches(aFilePath, included)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean matches(String aFilePath, String aPattern) {
+        String pattern = aPattern.startsWith("/") ? aPattern : _configDirectory + "/" + aPattern;
+        if (pattern.endsWith("/")) {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+
+        if (pattern.contains("*")) {
+            return FileSystems.getDefault().getPathMatcher("glob:" + pattern).matches(Paths.get(aFilePath));
+        }
+
+        return aFilePath.equals(pattern) || aFilePath.startsWith(pattern + "/");
+    }
+
+    private static List<String> stringList(Object aValue) {
+        if (!(aValue instanceof List)) {
+            return Collections.emptyList();
+        }
+
+        List<String> result = new ArrayList<>();
+        for (Object item : (List<?>) aValue) {
+            if (item != null) {
+                result.add(item.toString());
             }
         }
+        return result;
     }
 
-    Severity ruleSeverity(String aRuleName) {
-        Severity result = rulesSeverity.get(aRuleName);
-        return result == null ? Severity.Disabled : result;
+    // Whether SwiftLint runs the rule with this config: opt-in rules must be enabled, others must not be disabled.
+    // Rules unknown to the catalog (custom rules among them) count as enabled unless disabled.
+    boolean isRuleEnabled(@NotNull String aRuleName) {
+        int ruleId = _catalog.existingId(aRuleName);
+        if (ruleId == RuleCatalog.UNKNOWN) {
+            return true;
+        }
+        return _configuredRules.get(ruleId) ? _enabledRules.get(ruleId) : !_catalog.isOptIn(ruleId);
     }
 
     private void processOptInRules(List<String> aOptInRules) {
@@ -168,11 +230,13 @@ class SwiftLintConfig {
     }
 
     private void setRuleSeverity(String aRuleName, Severity aSeverity) {
-        if (ruleNames.contains(aRuleName)) {
-            rulesSeverity.put(aRuleName, aSeverity);
-        } else {
-            System.err.println("Unknown rule: " + aRuleName);
+        int ruleId = _catalog.existingId(aRuleName);
+        if (ruleId == RuleCatalog.UNKNOWN) {
+            return;
         }
+
+        _configuredRules.set(ruleId);
+        _enabledRules.set(ruleId, aSeverity != Severity.Disabled);
     }
 
     private static class DepthedFile {
@@ -208,7 +272,7 @@ class SwiftLintConfig {
             }
 
             if (file._file.findChild(".swiftlint.yml") != null) {
-                return file._file + "/.swiftlint.yml";
+                return file._file.getPath() + "/.swiftlint.yml";
             } else {
                 filesToLookAt.addAll(
                         Arrays.stream(file._file.getChildren())
@@ -222,4 +286,53 @@ class SwiftLintConfig {
         return null;
     }
 
+    // Same lookup on the file system, for the command line runner
+    @Nullable
+    static String swiftLintConfigPath(@NotNull File aRoot, int aDepthToLookAt) {
+        if (new File(aRoot, ".swiftlint.yml").isFile()) {
+            return new File(aRoot, ".swiftlint.yml").getAbsolutePath();
+        }
+
+        Deque<DepthedDirectory> directoriesToLookAt = new ArrayDeque<>();
+        for (File child : subdirectories(aRoot)) {
+            directoriesToLookAt.add(new DepthedDirectory(0, child));
+        }
+
+        while (!directoriesToLookAt.isEmpty()) {
+            DepthedDirectory directory = directoriesToLookAt.poll();
+            if (directory._depth > aDepthToLookAt) {
+                break;
+            }
+
+            File config = new File(directory._directory, ".swiftlint.yml");
+            if (config.isFile()) {
+                return config.getAbsolutePath();
+            }
+
+            for (File child : subdirectories(directory._directory)) {
+                directoriesToLookAt.add(new DepthedDirectory(directory._depth + 1, child));
+            }
+        }
+
+        return null;
+    }
+
+    private static class DepthedDirectory {
+        final int _depth;
+        final File _directory;
+
+        DepthedDirectory(int aDepth, File aDirectory) {
+            _depth = aDepth;
+            _directory = aDirectory;
+        }
+    }
+
+    private static File[] subdirectories(File aDirectory) {
+        File[] result = aDirectory.listFiles(File::isDirectory);
+        if (result == null) {
+            return new File[0];
+        }
+        Arrays.sort(result);
+        return result;
+    }
 }
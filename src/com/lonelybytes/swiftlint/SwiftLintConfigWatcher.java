@@ -0,0 +1,213 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.*;
+import java.util.function.Predicate;
+
+// Keeps the resolved .swiftlint.yml path and its parsed model, so lookups don't walk the project tree.
+// When the config or a config it references changes, re-lints open files (visible ones first) only if the change can
+// affect results.
+public class SwiftLintConfigWatcher {
+    private static final String CONFIG_FILE_NAME = ".swiftlint.yml";
+    private static final int CONFIG_SEARCH_DEPTH = 5;
+    // Keys that don't change lint results: the plugin always uses its own reporter
+    private static final Set<String> IGNORED_KEYS = new HashSet<>(Collections.singletonList("reporter"));
+
+    private static class Resolved {
+        final String configPath;
+        final SwiftLintConfig config;
+        // The config and its parent_config/child_config files
+        final Set<String> configFiles;
+        // Of the referenced configs only; changes of the config itself are compared key by key
+        final List<String> referencedFingerprints = new ArrayList<>();
+
+        Resolved(String aConfigPath, SwiftLintConfig aConfig) {
+            configPath = aConfigPath;
+            config = aConfig;
+            configFiles = ConfigFingerprint.chain(aConfigPath);
+            List<String> files = new ArrayList<>(configFiles);
+            for (String path : files.subList(Math.min(1, files.size()), files.size())) {
+                referencedFingerprints.add(ConfigFingerprint.of(path));
+            }
+        }
+    }
+
+    private final Project _project;
+    private volatile Resolved _resolved;
+
+    public SwiftLintConfigWatcher(@NotNull Project aProject) {
+        _project = aProject;
+    }
+
+    static SwiftLintConfigWatcher getInstance(@NotNull Project aProject) {
+        return ServiceManager.getService(aProject, SwiftLintConfigWatcher.class);
+    }
+
+    void start() {
+        _project.getMessageBus().connect(_project).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void before(@NotNull List<? extends VFileEvent> aEvents) {
+            }
+
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> aEvents) {
+                Resolved resolved = _resolved;
+                for (VFileEvent event : aEvents) {
+                    if (event.getPath().endsWith("/" + CONFIG_FILE_NAME) ||
+                            (resolved != null && resolved.configFiles.contains(event.getPath()))) {
+                        ApplicationManager.getApplication().executeOnPooledThread(SwiftLintConfigWatcher.this::reload);
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    @Nullable
+    String configPath() {
+        return resolved().configPath;
+    }
+
+    @NotNull
+    SwiftLintConfig config() {
+        return resolved().config;
+    }
+
+    private Resolved resolved() {
+        Resolved resolved = _resolved;
+        if (resolved == null) {
+            resolved = resolve();
+            _resolved = resolved;
+        }
+        return resolved;
+    }
+
+    private Resolved resolve() {
+        String configPath = ApplicationManager.getApplication().runReadAction((Computable<String>) () ->
+                _project.isDisposed() ? null : SwiftLintConfig.swiftLintConfigPath(_project, CONFIG_SEARCH_DEPTH));
+
+        SwiftLintCapabilities capabilities = SwiftLintCapabilities.of(SwiftLintSettings.snapshot(_project).appPath);
+        return new Resolved(configPath, new SwiftLintConfig(configPath, RuleCatalog.of(capabilities)));
+    }
+
+    private void reload() {
+        if (_project.isDisposed()) {
+            return;
+        }
+
+        Resolved previous = _resolved;
+        Resolved current = resolve();
+        _resolved = current;
+
+        if (previous == null) {
+            return;
+        }
+
+        boolean pathChanged = !Objects.equals(previous.configPath, current.configPath);
+        Set<String> changedKeys = SwiftLintConfig.changedKeys(previous.config, current.config);
+        changedKeys.removeAll(IGNORED_KEYS);
+        if (!pathChanged && changedKeys.isEmpty() && previous.referencedFingerprints.equals(current.referencedFingerprints)) {
+            // Formatting or comments only
+            return;
+        }
+
+        ViolationStore violationStore = ViolationStore.getInstance(_project);
+        Set<String> changedRules = SwiftLintConfig.changedRules(previous.config, current.config, changedKeys);
+        if (pathChanged || current.configPath == null || changedRules == null ||
+                !previous.referencedFingerprints.equals(current.referencedFingerprints)) {
+            // Can't tell which results are affected. Results outside of the config's directory don't depend on it.
+            if (pathChanged || current.configPath == null) {
+                violationStore.clear();
+            } else {
+                violationStore.removeUnder(new File(current.configPath).getParent());
+            }
+            ApplicationManager.getApplication().invokeLater(() -> relintOpenFiles(null, true));
+            return;
+        }
+
+        String prefix = new File(current.configPath).getParent() + "/";
+        boolean pathsChanged = !Collections.disjoint(changedKeys, SwiftLintConfig.PATH_KEYS);
+        Predicate<String> isExclusionChanged = aPath ->
+                pathsChanged && previous.config.isExcluded(aPath) != current.config.isExcluded(aPath);
+
+        // Rules that now run may report violations anywhere. Full profile results hold expensive rules only.
+        Set<String> enabledRules = new HashSet<>();
+        for (String rule : changedRules) {
+            if (current.config.isRuleEnabled(rule)) {
+                enabledRules.add(rule);
+            }
+        }
+        SwiftLintCapabilities capabilities = SwiftLintCapabilities.of(SwiftLintSettings.snapshot(_project).appPath);
+        RuleCatalog catalog = RuleCatalog.of(capabilities);
+        RuleProfile profile = RuleProfiles.getInstance(_project).profile(capabilities, catalog, current.configPath);
+        boolean fullProfileRulesEnabled = !Collections.disjoint(enabledRules, profile.expensiveRules);
+
+        Set<String> dropped = violationStore.removeIf(
+                (aPath, aViolations) -> aPath.startsWith(prefix) && (isExclusionChanged.test(aPath) || fullProfileRulesEnabled ||
+                        contains(aViolations, changedRules, catalog)),
+                (aPath, aViolations) -> aPath.startsWith(prefix) && (isExclusionChanged.test(aPath) || !enabledRules.isEmpty() ||
+                        contains(aViolations, changedRules, catalog)));
+
+        // On-the-fly results of every open file change with the rules; exclusion changes only affect the files involved
+        boolean rulesChanged = !changedRules.isEmpty();
+        ApplicationManager.getApplication().invokeLater(() ->
+                relintOpenFiles(aFile -> dropped.contains(aFile.getPath()) || isExclusionChanged.test(aFile.getPath()), rulesChanged));
+    }
+
+    // Whether any violation is of one of aRules; custom rules are configured together under "custom_rules"
+    private static boolean contains(@NotNull List<Violation> aViolations, @NotNull Set<String> aRules, @NotNull RuleCatalog aCatalog) {
+        for (Violation violation : aViolations) {
+            if (aRules.contains(aCatalog.name(violation.ruleId)) ||
+                    (!aCatalog.isListed(violation.ruleId) && aRules.contains(SwiftLintConfig.CUSTOM_RULES))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // aDeferred: files that need a deferred re-lint, null for all; aRestartAll: re-highlight every open file
+    private void relintOpenFiles(@Nullable Predicate<VirtualFile> aDeferred, boolean aRestartAll) {
+        if (_project.isDisposed()) {
+            return;
+        }
+
+        FileEditorManager editorManager = FileEditorManager.getInstance(_project);
+        Set<VirtualFile> files = new LinkedHashSet<>(Arrays.asList(editorManager.getSelectedFiles()));
+        files.addAll(Arrays.asList(editorManager.getOpenFiles()));
+
+        DeferredLintScheduler scheduler = DeferredLintScheduler.getInstance(_project);
+        DaemonCodeAnalyzer daemonCodeAnalyzer = DaemonCodeAnalyzer.getInstance(_project);
+        PsiManager psiManager = PsiManager.getInstance(_project);
+
+        for (VirtualFile file : files) {
+            if (!file.isValid() || !"swift".equalsIgnoreCase(file.getExtension())) {
+                continue;
+            }
+
+            boolean deferred = aDeferred == null || aDeferred.test(file);
+            if (deferred) {
+                scheduler.schedule(file, true);
+            }
+
+            PsiFile psiFile = aRestartAll || deferred ? psiManager.findFile(file) : null;
+            if (psiFile != null) {
+                daemonCodeAnalyzer.restart(psiFile);
+            }
+        }
+    }
+}
@@ -2,20 +2,17 @@ package com.lonelybytes.swiftlint;
 
 import com.intellij.codeHighlighting.HighlightDisplayLevel;
 import com.intellij.codeInspection.*;
-import com.intellij.ide.util.PropertiesComponent;
 import com.intellij.lang.ASTNode;
 import com.intellij.notification.Notification;
 import com.intellij.notification.NotificationType;
 import com.intellij.notification.Notifications;
 import com.intellij.openapi.application.ApplicationManager;
-import com.intellij.openapi.application.Result;
-import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.TextRange;
-import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiWhiteSpace;
@@ -27,45 +24,39 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static com.intellij.codeInspection.ProblemHighlightType.GENERIC_ERROR;
 import static com.intellij.codeInspection.ProblemHighlightType.GENERIC_ERROR_OR_WARNING;
 
 public class SwiftLintInspection extends LocalInspectionTool {
-    @SuppressWarnings("WeakerAccess")
-    static class State {
-        public String getAppPath() {
-            return PropertiesComponent.getInstance().getValue("com.appcodeplugins.swiftlint.v1_7.appName");
+    private static final Key<CheckResult> LAST_RESULT = Key.create("SwiftLint.LastResult");
+
+    // Descriptors of the last check of a file. When the same document version yields the same violations they are
+    // returned again, so the highlighting pass sees the same descriptors instead of a fresh set for every run.
+    // On-the-fly results only: batch inspections would keep descriptors, and the PSI they point to, of every file.
+    private static class CheckResult {
+        final long modificationStamp;
+        final boolean quickFixEnabled;
+        final RuleCatalog catalog;
+        final List<Violation> violations;
+        final ProblemDescriptor[] descriptors;
+
+        CheckResult(long aModificationStamp, boolean aQuickFixEnabled, RuleCatalog aCatalog, List<Violation> aViolations,
+                    ProblemDescriptor[] aDescriptors) {
+            modificationStamp = aModificationStamp;
+            quickFixEnabled = aQuickFixEnabled;
+            catalog = aCatalog;
+            violations = aViolations;
+            descriptors = aDescriptors;
         }
 
-        public void setAppPath(String aAppPath) {
-            PropertiesComponent.getInstance().setValue("com.appcodeplugins.swiftlint.v1_7.appName", aAppPath);
-        }
-
-        public boolean isQuickFixEnabled() {
-            return PropertiesComponent.getInstance().getBoolean("com.appcodeplugins.swiftlint.v1_7.quickFixEnabled");
-        }
-
-        public void setQuickFixEnabled(boolean aQuickFixEnabled) {
-            PropertiesComponent.getInstance().setValue("com.appcodeplugins.swiftlint.v1_7.quickFixEnabled", aQuickFixEnabled);
-        }
-
-        public boolean isDisableWhenNoConfigPresent() {
-            return PropertiesComponent.getInstance().getBoolean("com.appcodeplugins.swiftlint.v1_7.isDisableWhenNoConfigPresent");
-        }
-
-        public void setDisableWhenNoConfigPresent(boolean aDisableWhenNoConfigPresent) {
-            PropertiesComponent.getInstance().setValue("com.appcodeplugins.swiftlint.v1_7.isDisableWhenNoConfigPresent", aDisableWhenNoConfigPresent);
+        boolean matches(long aModificationStamp, boolean aQuickFixEnabled, RuleCatalog aCatalog, List<Violation> aViolations) {
+            return modificationStamp == aModificationStamp && quickFixEnabled == aQuickFixEnabled && catalog == aCatalog &&
+                    violations.equals(aViolations);
         }
     }
-    
-    @SuppressWarnings("WeakerAccess")
-    static State STATE = new State();
-
-    private static final String QUICK_FIX_NAME = "Autocorrect";
 
     @Nls
     @NotNull
@@ -117,68 +108,102 @@ public class SwiftLintInspection extends LocalInspectionTool {
             return null;
         }
 
-        if (STATE == null) {
-            STATE = new State();
-            STATE.setAppPath(Configuration.DEFAULT_SWIFTLINT_PATH);
-            STATE.setDisableWhenNoConfigPresent(false);
-            STATE.setQuickFixEnabled(true);
-        } else if (STATE.getAppPath() == null || STATE.getAppPath().isEmpty()) {
-            STATE.setAppPath(Configuration.DEFAULT_SWIFTLINT_PATH);
+        SwiftLintSettings.Snapshot settings = SwiftLintSettings.snapshot(file.getProject());
+
+        SwiftLintConfigWatcher configWatcher = SwiftLintConfigWatcher.getInstance(file.getProject());
+        String swiftLintConfigPath = configWatcher.configPath();
+        if (settings.disableWhenNoConfigPresent && swiftLintConfigPath == null) {
+            return null;
         }
 
-        String swiftLintConfigPath = SwiftLintConfig.swiftLintConfigPath(file.getProject(), 5);
-        if (STATE.isDisableWhenNoConfigPresent() && swiftLintConfigPath == null) {
+        if (configWatcher.config().isExcluded(file.getVirtualFile().getPath())) {
             return null;
         }
 
-        String toolPath = STATE.getAppPath();
+        String toolPath = settings.appPath;
+        boolean quickFixEnabled = settings.quickFixEnabled;
 
-        Pattern errorsPattern = Pattern.compile("^(\\S.*?):(?:(\\d+):)(?:(\\d+):)? (\\S+):([^\\(]*)\\((.*)\\)$");
-        int lineMatchIndex = 2;
-        int columnMatchIndex = 3;
-        int severityMatchIndex = 4;
-        int messageMatchIndex = 5;
-        int errorTypeMatchIndex = 6;
+        SwiftLintCapabilities capabilities = SwiftLintCapabilities.of(toolPath);
+        if (!capabilities.available) {
+            return null;
+        }
+
+        String filePath = file.getVirtualFile().getPath();
+        String[] autocorrectOptions = quickFixEnabled ? capabilities.autocorrectOptions(swiftLintConfigPath, filePath) : null;
 
         List<ProblemDescriptor> descriptors = new ArrayList<>();
+        long modificationStamp = document.getModificationStamp();
 
         try {
-            String lintedErrors = Utils.executeCommandOnFile(toolPath, new String[] {
-                    "lint",
-                    "--config", swiftLintConfigPath,
-                    "--reporter", "xcode",
-                    "--use-stdin"
-            }, file);
-
-            System.out.println("\n" + lintedErrors + "\n");
+            Project project = file.getProject();
+            RuleCatalog catalog = RuleCatalog.of(capabilities);
+            RuleProfile profile = RuleProfiles.getInstance(project).profile(capabilities, catalog, swiftLintConfigPath);
+            ViolationStore violationStore = ViolationStore.getInstance(project);
+
+            LintPolicyEngine policyEngine = LintPolicyEngine.getInstance(project);
+            LintPolicy policy = policyEngine.decide(file.getVirtualFile(), document).policy;
+
+            List<Violation> violations;
+            boolean baselineFiltered = false;
+            // Deferred results are counted when they are stored; fast profile results without the expensive rules not at all
+            boolean complete = true;
+            if (policy == LintPolicy.NEVER) {
+                return null;
+            } else if (isOnTheFly && policy.isDeferred()) {
+                violations = violationStore.deferredViolations(filePath);
+                if (violations == null) {
+                    DeferredLintScheduler.getInstance(project).schedule(file.getVirtualFile(), true);
+                    return null;
+                }
+                baselineFiltered = true;
+                complete = false;
+            } else if (isOnTheFly && profile.hasFastProfile()) {
+                violations = new ArrayList<>(SwiftLintRunner.lint(capabilities, profile.fastConfigPath, filePath, file.getText(),
+                        aMillis -> policyEngine.recordLatency(filePath, aMillis)));
+
+                List<Violation> fullProfileViolations = violationStore.fullProfileViolations(filePath, modificationStamp);
+                if (fullProfileViolations != null) {
+                    violations.addAll(fullProfileViolations);
+                } else {
+                    // Expensive rules of this version haven't been linted yet, e.g. the file was just opened
+                    complete = false;
+                    DeferredLintScheduler.getInstance(project).schedule(file.getVirtualFile(), false);
+                }
+            } else {
+                violations = SwiftLintRunner.lint(capabilities, swiftLintConfigPath, filePath, file.getText(),
+                        aMillis -> policyEngine.recordLatency(filePath, aMillis));
 
-            if (lintedErrors.isEmpty()) {
-                return descriptors.toArray(new ProblemDescriptor[descriptors.size()]);
+                if (profile.hasFastProfile()) {
+                    violationStore.putFullProfileViolations(filePath, modificationStamp, profile.expensiveOnly(violations, catalog));
+                }
             }
 
-            Scanner scanner = new Scanner(lintedErrors);
-
-            String line;
-            while (scanner.hasNext()) {
-                line = scanner.nextLine();
-                if (!line.contains(":")) {
-                    continue;
-                }
+            // Before any PSI work: baseline violations cost nothing beyond the lookup
+            if (!baselineFiltered) {
+                violations = ViolationBaseline.getInstance(project).filter(filePath, document.getImmutableCharSequence(), violations, catalog);
+            }
+            if (complete) {
+                ViolationAggregateIndex.getInstance(project).update(filePath, violations, catalog);
+            }
 
-                Matcher matcher = errorsPattern.matcher(line);
+            violations = new ArrayList<>(violations);
+            violations.sort(Violation.POSITION_ORDER);
+            violations = Violation.limit(violations, LintOutput.maxViolationsPerFile(), catalog);
 
-                if (!matcher.matches()) {
-                    continue;
-                }
+            CheckResult lastResult = isOnTheFly ? file.getUserData(LAST_RESULT) : null;
+            if (lastResult != null && lastResult.matches(modificationStamp, autocorrectOptions != null, catalog, violations)) {
+                return lastResult.descriptors;
+            }
 
-                final String errorType = matcher.group(errorTypeMatchIndex);
+            for (Violation violation : violations) {
+                final String errorType = catalog.name(violation.ruleId);
 
-                int linePointerFix = errorType.equals("mark") ? -1 : -1;
+                int linePointerFix = -1;
 
-                int lineNumber = Math.min(document.getLineCount() + linePointerFix, Integer.parseInt(matcher.group(lineMatchIndex)) + linePointerFix);
+                int lineNumber = Math.min(document.getLineCount() + linePointerFix, violation.line + linePointerFix);
                 lineNumber = Math.max(0, lineNumber);
 
-                int columnNumber = matcher.group(columnMatchIndex) == null ? -1 : Math.max(0, Integer.parseInt(matcher.group(columnMatchIndex)));
+                int columnNumber = violation.column;
 
                 if (errorType.equals("empty_first_line")) {
                     // SwiftLint shows some strange identifier on the previous line
@@ -186,8 +211,7 @@ public class SwiftLintInspection extends LocalInspectionTool {
                     columnNumber = -1;
                 }
 
-                final String severity = matcher.group(severityMatchIndex);
-                final String errorMessage = matcher.group(messageMatchIndex);
+                final String errorMessage = violation.message;
 
                 int highlightStartOffset = document.getLineStartOffset(lineNumber);
                 int highlightEndOffset = lineNumber < document.getLineCount() - 1
@@ -214,7 +238,7 @@ public class SwiftLintInspection extends LocalInspectionTool {
 
                 boolean isErrorInLineComment = startNode != null && startNode.getElementType().toString().equals("EOL_COMMENT");
 
-                ProblemHighlightType highlightType = severityToHighlightType(severity);
+                ProblemHighlightType highlightType = severityToHighlightType(violation.severity);
 
                 if (isErrorInLineComment) {
                     range = TextRange.create(document.getLineStartOffset(lineNumber), document.getLineEndOffset(lineNumber));
@@ -291,44 +315,19 @@ public class SwiftLintInspection extends LocalInspectionTool {
                     }
                 }
 
-                if (STATE.isQuickFixEnabled()) {
-                    descriptors.add(manager.createProblemDescriptor(file, range, errorMessage.trim(), highlightType, false, new LocalQuickFix() {
-                        @Nls
-                        @NotNull
-                        @Override
-                        public String getName() {
-                            return QUICK_FIX_NAME;
-                        }
-
-                        @Nls
-                        @NotNull
-                        @Override
-                        public String getFamilyName() {
-                            return QUICK_FIX_NAME;
-                        }
-
-                        @Override
-                        public boolean startInWriteAction() {
-                            return false;
-                        }
-
-                        @Override
-                        public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor problemDescriptor) {
-                            WriteCommandAction writeCommandAction = new WriteCommandAction(project, file) {
-                                @Override
-                                protected void run(@NotNull Result aResult) throws Throwable {
-                                    executeSwiftLintQuickFix(toolPath, file);
-                                }
-                            };
-
-                            writeCommandAction.execute();
-                        }
-                    }));
+                if (autocorrectOptions != null && catalog.isCorrectable(violation.ruleId)) {
+                    descriptors.add(manager.createProblemDescriptor(file, range, errorMessage, highlightType, false, AutocorrectQuickFix.INSTANCE));
                 } else {
-                    descriptors.add(manager.createProblemDescriptor(file, range, errorMessage.trim(), highlightType, false, LocalQuickFix.EMPTY_ARRAY));
+                    descriptors.add(manager.createProblemDescriptor(file, range, errorMessage, highlightType, false, LocalQuickFix.EMPTY_ARRAY));
                 }
             }
-        } catch (ProcessCanceledException ex) {
+
+            ProblemDescriptor[] result = descriptors.toArray(new ProblemDescriptor[descriptors.size()]);
+            if (isOnTheFly) {
+                file.putUserData(LAST_RESULT, new CheckResult(modificationStamp, autocorrectOptions != null, catalog, violations, result));
+            }
+            return result;
+        } catch (ProcessCanceledException | InterruptedIOException ex) {
             // Do nothing here
         } catch (IOException ex) {
             if (ex.getMessage().contains("No such file or directory") || ex.getMessage().contains("error=2")) {
@@ -344,19 +343,7 @@ public class SwiftLintInspection extends LocalInspectionTool {
         return descriptors.toArray(new ProblemDescriptor[descriptors.size()]);
     }
 
-    private void executeSwiftLintQuickFix(String aToolPath, @NotNull PsiFile file) {
-        saveAll();
-        ApplicationManager.getApplication().invokeLater(() -> {
-            try {
-                Utils.executeCommandOnFile(aToolPath, new String[] { "autocorrect", "--path" }, file);
-                LocalFileSystem.getInstance().refreshFiles(Collections.singletonList(file.getVirtualFile()));
-            } catch (IOException aE) {
-                Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "Error", "Can't quick-fix.\nIOException: " + aE.getMessage(), NotificationType.ERROR));
-            }
-        });
-    }
-
-    private void saveAll() {
+    static void saveAll() {
         final FileDocumentManager documentManager = FileDocumentManager.getInstance();
         if (documentManager.getUnsavedDocuments().length != 0) {
             ApplicationManager.getApplication().invokeLater(documentManager::saveAllDocuments);
@@ -510,18 +497,12 @@ public class SwiftLintInspection extends LocalInspectionTool {
         return "swift".equalsIgnoreCase(aFile.getVirtualFile().getExtension());
     }
 
-    private static ProblemHighlightType severityToHighlightType(@NotNull final String severity) {
-        switch (severity.trim().toLowerCase()) {
-            case "error":
+    private static ProblemHighlightType severityToHighlightType(byte aSeverity) {
+        switch (aSeverity) {
+            case Violation.SEVERITY_ERROR:
                 return GENERIC_ERROR;
-            case "warning":
+            case Violation.SEVERITY_WARNING:
                 return GENERIC_ERROR_OR_WARNING;
-            case "style":
-            case "performance":
-            case "portability":
-                return ProblemHighlightType.LIKE_UNKNOWN_SYMBOL;
-            case "information":
-                return ProblemHighlightType.LIKE_UNKNOWN_SYMBOL;
             default:
                 return ProblemHighlightType.LIKE_UNKNOWN_SYMBOL;
         }
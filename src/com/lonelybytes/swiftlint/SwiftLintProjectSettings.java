@@ -0,0 +1,101 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+@State(name = "SwiftLintProject", storages = @Storage("swiftlint.xml"))
+public class SwiftLintProjectSettings implements PersistentStateComponent<SwiftLintProjectSettings.ProjectState> {
+    // null values mean "use the application setting"
+    @SuppressWarnings("WeakerAccess")
+    public static class ProjectState {
+        public String appPath = null;
+        public Boolean quickFixEnabled = null;
+        public Boolean disableWhenNoConfigPresent = null;
+
+        // Seconds per rule, measured with "swiftlint lint --benchmark"
+        public Map<String, Double> ruleCosts = new HashMap<>();
+
+        // Commit dialog check
+        public boolean lintBeforeCommit = false;
+        public boolean changedLinesOnly = true;
+    }
+
+    private ProjectState _state = new ProjectState();
+    private volatile SwiftLintSettings.Snapshot _snapshot;
+
+    static SwiftLintProjectSettings getInstance(@NotNull Project aProject) {
+        return ServiceManager.getService(aProject, SwiftLintProjectSettings.class);
+    }
+
+    @NotNull
+    SwiftLintSettings.Snapshot snapshot(@NotNull SwiftLintSettings.Snapshot aApplicationSnapshot) {
+        SwiftLintSettings.Snapshot snapshot = _snapshot;
+        if (snapshot == null || snapshot.base != aApplicationSnapshot) {
+            ProjectState state = _state;
+            snapshot = aApplicationSnapshot.withOverrides(state.appPath, state.quickFixEnabled, state.disableWhenNoConfigPresent);
+            _snapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    @NotNull
+    ProjectState copyState() {
+        ProjectState result = new ProjectState();
+        XmlSerializerUtil.copyBean(_state, result);
+        return result;
+    }
+
+    @NotNull
+    Map<String, Double> ruleCosts() {
+        return _state.ruleCosts;
+    }
+
+    void updateRuleCosts(@NotNull Map<String, Double> aRuleCosts) {
+        ProjectState state = copyState();
+        state.ruleCosts = Collections.unmodifiableMap(new HashMap<>(aRuleCosts));
+        update(state);
+    }
+
+    boolean isLintBeforeCommit() {
+        return _state.lintBeforeCommit;
+    }
+
+    boolean isChangedLinesOnly() {
+        return _state.changedLinesOnly;
+    }
+
+    void updateCommitCheck(boolean aLintBeforeCommit, boolean aChangedLinesOnly) {
+        ProjectState state = copyState();
+        state.lintBeforeCommit = aLintBeforeCommit;
+        state.changedLinesOnly = aChangedLinesOnly;
+        update(state);
+    }
+
+    void update(@NotNull ProjectState aState) {
+        _state = aState;
+        _snapshot = null;
+    }
+
+    @Nullable
+    @Override
+    public ProjectState getState() {
+        return _state;
+    }
+
+    @Override
+    public void loadState(ProjectState aState) {
+        ProjectState state = new ProjectState();
+        XmlSerializerUtil.copyBean(aState, state);
+        update(state);
+    }
+}
@@ -0,0 +1,36 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.ide.projectView.PresentationData;
+import com.intellij.ide.projectView.ProjectViewNode;
+import com.intellij.ide.projectView.ProjectViewNodeDecorator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.packageDependencies.ui.PackageDependenciesNode;
+import com.intellij.ui.ColoredTreeCellRenderer;
+import com.intellij.ui.SimpleTextAttributes;
+
+// Violation counts next to project view files and directories, read from the aggregate index
+public class SwiftLintProjectViewDecorator implements ProjectViewNodeDecorator {
+    @Override
+    public void decorate(ProjectViewNode aNode, PresentationData aData) {
+        VirtualFile file = aNode.getVirtualFile();
+        Project project = aNode.getProject();
+        if (file == null || project == null || project.isDisposed()) {
+            return;
+        }
+
+        int[] severities = ViolationAggregateIndex.getInstance(project).severityCounts(file.getPath(), file.isDirectory());
+        if (severities == null) {
+            return;
+        }
+
+        if (aData.getColoredText().isEmpty()) {
+            aData.addText(aData.getPresentableText(), SimpleTextAttributes.REGULAR_ATTRIBUTES);
+        }
+        aData.addText("  " + ViolationAggregateIndex.summary(severities), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+    }
+
+    @Override
+    public void decorate(PackageDependenciesNode aNode, ColoredTreeCellRenderer aCellRenderer) {
+    }
+}
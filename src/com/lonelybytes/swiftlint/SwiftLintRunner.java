@@ -0,0 +1,147 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongConsumer;
+
+class SwiftLintRunner {
+    private static final long AWAIT_POLL_MS = 50;
+
+    // Lints in progress by key: identical requests from other passes, editors or projects wait for the running
+    // process instead of starting their own
+    private static final ConcurrentMap<String, CompletableFuture<List<Violation>>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    private SwiftLintRunner() {
+    }
+
+    @NotNull
+    static List<Violation> lint(@NotNull SwiftLintCapabilities aCapabilities, @Nullable String aConfigPath,
+                                @NotNull String aFilePath, @NotNull String aText) throws IOException {
+        return lint(aCapabilities, aConfigPath, aFilePath, aText, null);
+    }
+
+    // Lints aText (the current content of aFilePath). Without stdin support the saved file is linted instead,
+    // and results are not cached because they may not match aText. The result is shared, don't modify it.
+    // aProcessTime gets the run time in ms when this call started SwiftLint, not for cached or shared results.
+    @NotNull
+    static List<Violation> lint(@NotNull SwiftLintCapabilities aCapabilities, @Nullable String aConfigPath,
+                                @NotNull String aFilePath, @NotNull String aText, @Nullable LongConsumer aProcessTime) throws IOException {
+        RuleCatalog catalog = RuleCatalog.of(aCapabilities);
+        String configFingerprint = ConfigFingerprint.of(aConfigPath);
+
+        String cacheKey = null;
+        String inFlightKey;
+        if (aCapabilities.supportsStdin) {
+            cacheKey = ResultCache.key(aText, configFingerprint, aCapabilities.version);
+            List<Violation> cached = ResultCache.INSTANCE.get(cacheKey, catalog);
+            if (cached != null) {
+                return cached;
+            }
+            inFlightKey = aCapabilities.appPath + ":" + cacheKey;
+        } else {
+            inFlightKey = aCapabilities.appPath + ":" + configFingerprint + ":" + aFilePath + ":" + new File(aFilePath).lastModified();
+        }
+
+        while (true) {
+            CompletableFuture<List<Violation>> future = new CompletableFuture<>();
+            CompletableFuture<List<Violation>> running = IN_FLIGHT.putIfAbsent(inFlightKey, future);
+            if (running == null) {
+                return run(aCapabilities, catalog, aConfigPath, aFilePath, aText, cacheKey, inFlightKey, future, aProcessTime);
+            }
+
+            List<Violation> shared = await(running);
+            if (shared != null) {
+                return shared;
+            }
+            // The run was cancelled by whoever started it, this call isn't: start another one
+        }
+    }
+
+    private static List<Violation> run(@NotNull SwiftLintCapabilities aCapabilities, @NotNull RuleCatalog aCatalog, @Nullable String aConfigPath,
+                                       @NotNull String aFilePath, @NotNull String aText, @Nullable String aCacheKey, @NotNull String aInFlightKey,
+                                       @NotNull CompletableFuture<List<Violation>> aFuture, @Nullable LongConsumer aProcessTime) throws IOException {
+        try {
+            // Another run may have finished between the cache lookup and putIfAbsent
+            List<Violation> cached = aCacheKey == null ? null : ResultCache.INSTANCE.get(aCacheKey, aCatalog);
+            if (cached != null) {
+                aFuture.complete(cached);
+                return cached;
+            }
+
+            String[] lintOptions = aCapabilities.lintOptions(aConfigPath, aFilePath);
+            List<Violation> violations;
+            try (LintOutput output = new LintOutput()) {
+                long start = System.currentTimeMillis();
+                int exitCode = Utils.executeCommand(aCapabilities.appPath, lintOptions, aCapabilities.supportsStdin ? aText : null, null, output);
+                // A failed run, e.g. with an invalid config, reports nothing; it must not be cached as "no violations"
+                Utils.checkLintExitCode(exitCode);
+                if (aProcessTime != null) {
+                    aProcessTime.accept(System.currentTimeMillis() - start);
+                }
+                violations = Collections.unmodifiableList(Violation.parse(output, aCatalog));
+            }
+
+            if (aCacheKey != null) {
+                ResultCache.INSTANCE.put(aCacheKey, violations, aCatalog);
+            }
+
+            aFuture.complete(violations);
+            return violations;
+        } catch (IOException | RuntimeException | Error ex) {
+            aFuture.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            IN_FLIGHT.remove(aInFlightKey, aFuture);
+        }
+    }
+
+    // Waits for a run started by another caller, staying responsive to cancellation of this one.
+    // Returns null when that run was cancelled.
+    @Nullable
+    private static List<Violation> await(@NotNull CompletableFuture<List<Violation>> aFuture) throws IOException {
+        while (true) {
+            if (!Utils.headless) {
+                ProgressManager.checkCanceled();
+            }
+
+            try {
+                return aFuture.get(AWAIT_POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                // Poll again
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for SwiftLint");
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                // ProcessCanceledException isn't on the command line runner's class path
+                if (cause instanceof InterruptedIOException || (!Utils.headless && cause instanceof ProcessCanceledException)) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException("Interrupted while waiting for SwiftLint");
+                    }
+                    return null;
+                }
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.execution.configurations.PathEnvironmentVariableUtil;
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+
+@State(name = "SwiftLint", storages = @Storage("swiftlint.xml"))
+public class SwiftLintSettings implements PersistentStateComponent<SwiftLintSettings.SettingsState> {
+    private static final String LEGACY_KEY_APP_PATH = "com.appcodeplugins.swiftlint.v1_7.appName";
+    private static final String LEGACY_KEY_QUICK_FIX = "com.appcodeplugins.swiftlint.v1_7.quickFixEnabled";
+    private static final String LEGACY_KEY_DISABLE_WHEN_NO_CONFIG = "com.appcodeplugins.swiftlint.v1_7.isDisableWhenNoConfigPresent";
+
+    @SuppressWarnings("WeakerAccess")
+    public static class SettingsState {
+        public String appPath = null;
+        public boolean quickFixEnabled = true;
+        public boolean disableWhenNoConfigPresent = false;
+        public String remoteCacheUrl = "";
+        public int outputMemoryLimitKb = LintOutput.DEFAULT_MEMORY_LIMIT_KB;
+        public int maxViolationsPerFile = LintOutput.DEFAULT_MAX_VIOLATIONS_PER_FILE;
+    }
+
+    // Immutable view of the settings; inspections read it without touching the persistent state.
+    static final class Snapshot {
+        final String appPath;
+        final boolean quickFixEnabled;
+        final boolean disableWhenNoConfigPresent;
+
+        // Application-level snapshot this one was derived from, null for the application-level snapshot itself.
+        final Snapshot base;
+
+        private Snapshot(String aAppPath, boolean aQuickFixEnabled, boolean aDisableWhenNoConfigPresent, Snapshot aBase) {
+            appPath = aAppPath;
+            quickFixEnabled = aQuickFixEnabled;
+            disableWhenNoConfigPresent = aDisableWhenNoConfigPresent;
+            base = aBase;
+        }
+
+        Snapshot withOverrides(@Nullable String aAppPath, @Nullable Boolean aQuickFixEnabled, @Nullable Boolean aDisableWhenNoConfigPresent) {
+            return new Snapshot(
+                    aAppPath == null || aAppPath.isEmpty() ? appPath : aAppPath,
+                    aQuickFixEnabled == null ? quickFixEnabled : aQuickFixEnabled,
+                    aDisableWhenNoConfigPresent == null ? disableWhenNoConfigPresent : aDisableWhenNoConfigPresent,
+                    this
+            );
+        }
+    }
+
+    private SettingsState _state = new SettingsState();
+    private volatile Snapshot _snapshot;
+
+    public SwiftLintSettings() {
+        PropertiesComponent properties = PropertiesComponent.getInstance();
+        String legacyAppPath = properties.getValue(LEGACY_KEY_APP_PATH);
+        if (legacyAppPath != null && !legacyAppPath.isEmpty()) {
+            _state.appPath = legacyAppPath;
+            _state.quickFixEnabled = properties.getBoolean(LEGACY_KEY_QUICK_FIX, true);
+            _state.disableWhenNoConfigPresent = properties.getBoolean(LEGACY_KEY_DISABLE_WHEN_NO_CONFIG, false);
+        }
+
+        _snapshot = createSnapshot(_state);
+    }
+
+    static SwiftLintSettings getInstance() {
+        return ServiceManager.getService(SwiftLintSettings.class);
+    }
+
+    @NotNull
+    static Snapshot snapshot() {
+        return getInstance()._snapshot;
+    }
+
+    @NotNull
+    static Snapshot snapshot(@NotNull Project aProject) {
+        return SwiftLintProjectSettings.getInstance(aProject).snapshot(snapshot());
+    }
+
+    @Nullable
+    @Override
+    public SettingsState getState() {
+        return _state;
+    }
+
+    @Override
+    public void loadState(SettingsState aState) {
+        XmlSerializerUtil.copyBean(aState, _state);
+        _snapshot = createSnapshot(_state);
+        ResultCache.INSTANCE.setRemoteUrl(_state.remoteCacheUrl);
+        LintOutput.setLimits(_state.outputMemoryLimitKb, _state.maxViolationsPerFile);
+    }
+
+    void update(String aAppPath, boolean aQuickFixEnabled, boolean aDisableWhenNoConfigPresent, String aRemoteCacheUrl,
+                int aOutputMemoryLimitKb, int aMaxViolationsPerFile) {
+        SettingsState state = new SettingsState();
+        state.appPath = aAppPath;
+        state.quickFixEnabled = aQuickFixEnabled;
+        state.disableWhenNoConfigPresent = aDisableWhenNoConfigPresent;
+        state.remoteCacheUrl = aRemoteCacheUrl == null ? "" : aRemoteCacheUrl.trim();
+        state.outputMemoryLimitKb = aOutputMemoryLimitKb;
+        state.maxViolationsPerFile = aMaxViolationsPerFile;
+
+        _state = state;
+        _snapshot = createSnapshot(state);
+        ResultCache.INSTANCE.setRemoteUrl(state.remoteCacheUrl);
+        LintOutput.setLimits(state.outputMemoryLimitKb, state.maxViolationsPerFile);
+    }
+
+    @NotNull
+    static String defaultAppPath() {
+        File swiftLintFilePath = PathEnvironmentVariableUtil.findInPath("swiftlint");
+        return swiftLintFilePath != null ? swiftLintFilePath.getAbsolutePath() : Configuration.DEFAULT_SWIFTLINT_PATH;
+    }
+
+    private static Snapshot createSnapshot(SettingsState aState) {
+        String appPath = aState.appPath == null || aState.appPath.isEmpty() ? defaultAppPath() : aState.appPath;
+        return new Snapshot(appPath, aState.quickFixEnabled, aState.disableWhenNoConfigPresent, null);
+    }
+}
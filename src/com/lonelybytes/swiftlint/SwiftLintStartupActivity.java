@@ -0,0 +1,14 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.jetbrains.annotations.NotNull;
+
+public class SwiftLintStartupActivity implements StartupActivity {
+    @Override
+    public void runActivity(@NotNull Project aProject) {
+        DeferredLintScheduler.getInstance(aProject).start();
+        SwiftLintConfigWatcher.getInstance(aProject).start();
+        ViolationAggregateIndex.getInstance(aProject).start();
+    }
+}
@@ -0,0 +1,17 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import org.jetbrains.annotations.NotNull;
+
+public class SwiftLintToolWindowFactory implements ToolWindowFactory, DumbAware {
+    @Override
+    public void createToolWindowContent(@NotNull Project aProject, @NotNull ToolWindow aToolWindow) {
+        Content content = ContentFactory.SERVICE.getInstance().createContent(new SwiftLintToolWindowPanel(aProject), "", false);
+        aToolWindow.getContentManager().addContent(content);
+    }
+}
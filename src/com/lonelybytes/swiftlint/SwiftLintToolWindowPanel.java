@@ -0,0 +1,340 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Project-wide SwiftLint results. Results stream into the model while the lint runs; the table only renders
+// visible rows and reads them from the model on demand, so its cost doesn't depend on the number of violations.
+class SwiftLintToolWindowPanel extends SimpleToolWindowPanel implements ViolationModel.Listener {
+    private static final int FLUSH_INTERVAL_MS = 300;
+    private static final String[] COLUMNS = { "Severity", "Rule", "File", "Line", "Message" };
+
+    private static class Group {
+        final String key;
+        final ViolationModel.RowIndex rows;
+
+        Group(String aKey, ViolationModel.RowIndex aRows) {
+            key = aKey;
+            rows = aRows;
+        }
+
+        @Override
+        public String toString() {
+            return (key == null ? "All" : key) + " (" + rows.size() + ")";
+        }
+    }
+
+    private final Project _project;
+    private final ViolationModel _model;
+    private final ViolationTableModel _tableModel = new ViolationTableModel();
+    private final DefaultListModel<Group> _groupsModel = new DefaultListModel<>();
+    private final JBList<Group> _groupsList = new JBList<>(_groupsModel);
+    private final ComboBox<ViolationModel.Grouping> _groupingComboBox = new ComboBox<>(ViolationModel.Grouping.values());
+    private final JLabel _summaryLabel = new JLabel();
+    private final JBTable _table = new JBTable(_tableModel);
+
+    private volatile boolean _running = false;
+    private boolean _updatingGroups = false;
+
+    SwiftLintToolWindowPanel(@NotNull Project aProject) {
+        super(false, true);
+        _project = aProject;
+        _model = new ViolationModel(aProject.getBasePath());
+        _model.addListener(this);
+
+        DefaultActionGroup actions = new DefaultActionGroup(new LintProjectAction(), new ClearAction());
+        setToolbar(ActionManager.getInstance().createActionToolbar(ActionPlaces.UNKNOWN, actions, false).getComponent());
+
+        _groupingComboBox.addActionListener(aEvent -> updateGroups());
+        _groupsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        _groupsList.addListSelectionListener(aEvent -> {
+            if (!_updatingGroups && !aEvent.getValueIsAdjusting()) {
+                _tableModel.setFilter(filter(_groupsList.getSelectedValue()));
+            }
+        });
+
+        JPanel groupsPanel = new JPanel(new BorderLayout());
+        JPanel groupsHeader = new JPanel(new BorderLayout());
+        groupsHeader.add(_groupingComboBox, BorderLayout.NORTH);
+        groupsHeader.add(_summaryLabel, BorderLayout.SOUTH);
+        groupsPanel.add(groupsHeader, BorderLayout.NORTH);
+        groupsPanel.add(new JBScrollPane(_groupsList), BorderLayout.CENTER);
+
+        _table.setAutoCreateRowSorter(false);
+        _table.getColumnModel().getColumn(4).setPreferredWidth(600);
+        _table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent aEvent) {
+                if (aEvent.getClickCount() == 2) {
+                    navigateToSelected();
+                }
+            }
+        });
+        _table.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent aEvent) {
+                if (aEvent.getKeyCode() == KeyEvent.VK_ENTER) {
+                    navigateToSelected();
+                    aEvent.consume();
+                }
+            }
+        });
+
+        JBSplitter splitter = new JBSplitter(false, 0.25f);
+        splitter.setFirstComponent(groupsPanel);
+        splitter.setSecondComponent(new JBScrollPane(_table));
+        setContent(splitter);
+
+        updateGroups();
+    }
+
+    @Override
+    public void rowsAppended(int aFrom, int aTo) {
+        _tableModel.rowsAppended();
+        updateGroups();
+    }
+
+    @Override
+    public void cleared() {
+        _tableModel.setFilter(null);
+        updateGroups();
+    }
+
+    private void lintProject() {
+        _running = true;
+        ProgressManager.getInstance().run(new Task.Backgroundable(_project, "Linting project with SwiftLint", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator aIndicator) {
+                // The previous results stay when nothing can be linted
+                String unavailableReason = ProjectLinter.unavailableReason(_project);
+                if (unavailableReason == null) {
+                    RuleCatalog catalog = RuleCatalog.of(SwiftLintCapabilities.of(SwiftLintSettings.snapshot(_project).appPath));
+                    ApplicationManager.getApplication().invokeLater(() -> _model.clear(catalog));
+
+                    List<ChangedFilesLinter.FileResult> chunk = new ArrayList<>();
+                    long[] lastFlush = { System.currentTimeMillis() };
+                    unavailableReason = ProjectLinter.lint(_project, aIndicator, aFileResult -> {
+                        chunk.add(aFileResult);
+                        if (System.currentTimeMillis() - lastFlush[0] >= FLUSH_INTERVAL_MS) {
+                            flush(chunk);
+                            lastFlush[0] = System.currentTimeMillis();
+                        }
+                    });
+                    flush(chunk);
+                }
+
+                if (unavailableReason != null) {
+                    Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "SwiftLint", "Nothing was linted. " + unavailableReason,
+                            NotificationType.WARNING), _project);
+                }
+            }
+
+            @Override
+            public void onFinished() {
+                _running = false;
+            }
+        });
+    }
+
+    private void flush(@NotNull List<ChangedFilesLinter.FileResult> aChunk) {
+        if (aChunk.isEmpty()) {
+            return;
+        }
+
+        List<ChangedFilesLinter.FileResult> files = new ArrayList<>(aChunk);
+        aChunk.clear();
+        ApplicationManager.getApplication().invokeLater(() -> _model.append(files));
+    }
+
+    // Group counts come from the model's indexes; the selected group is kept across updates
+    private void updateGroups() {
+        Group selected = _groupsList.getSelectedValue();
+        String selectedKey = selected == null ? null : selected.key;
+        ViolationModel.Grouping grouping = (ViolationModel.Grouping) _groupingComboBox.getSelectedItem();
+
+        List<Group> groups = new ArrayList<>();
+        for (Map.Entry<String, ViolationModel.RowIndex> entry : _model.groups(grouping).entrySet()) {
+            groups.add(new Group(entry.getKey(), entry.getValue()));
+        }
+        groups.sort((aLeft, aRight) -> aLeft.rows.size() != aRight.rows.size() ?
+                Integer.compare(aRight.rows.size(), aLeft.rows.size()) : aLeft.key.compareTo(aRight.key));
+
+        ViolationModel.RowIndex all = new ViolationModel.RowIndex() {
+            @Override
+            int get(int aIndex) {
+                return aIndex;
+            }
+
+            @Override
+            int size() {
+                return _model.size();
+            }
+        };
+
+        _updatingGroups = true;
+        try {
+            _groupsModel.clear();
+            _groupsModel.addElement(new Group(null, all));
+            int selectedIndex = 0;
+            for (Group group : groups) {
+                if (group.key.equals(selectedKey)) {
+                    selectedIndex = _groupsModel.size();
+                }
+                _groupsModel.addElement(group);
+            }
+            _groupsList.setSelectedIndex(selectedIndex);
+        } finally {
+            _updatingGroups = false;
+        }
+
+        _tableModel.setFilter(filter(_groupsList.getSelectedValue()));
+
+        _summaryLabel.setText(String.format("%d errors, %d warnings",
+                _model.severityCount(Violation.SEVERITY_ERROR), _model.severityCount(Violation.SEVERITY_WARNING)));
+    }
+
+    private static ViolationModel.RowIndex filter(Group aGroup) {
+        return aGroup == null || aGroup.key == null ? null : aGroup.rows;
+    }
+
+    private void navigateToSelected() {
+        int row = _table.getSelectedRow();
+        if (row < 0) {
+            return;
+        }
+
+        int modelRow = _tableModel.modelRow(row);
+        VirtualFile file = LocalFileSystem.getInstance().findFileByPath(_model.absolutePath(modelRow));
+        if (file != null) {
+            Violation violation = _model.violation(modelRow);
+            new OpenFileDescriptor(_project, file, Math.max(0, violation.line - 1), Math.max(0, violation.column - 1)).navigate(true);
+        }
+    }
+
+    private class ViolationTableModel extends AbstractTableModel {
+        // null: all rows
+        private ViolationModel.RowIndex _filter;
+        private int _rowCount;
+
+        void setFilter(ViolationModel.RowIndex aFilter) {
+            if (aFilter == _filter && _rowCount == rowCount()) {
+                return;
+            }
+
+            _filter = aFilter;
+            _rowCount = rowCount();
+            fireTableDataChanged();
+        }
+
+        // Rows are only appended, to the model and to its indexes alike
+        void rowsAppended() {
+            int from = _rowCount;
+            _rowCount = rowCount();
+            if (_rowCount > from) {
+                fireTableRowsInserted(from, _rowCount - 1);
+            }
+        }
+
+        int modelRow(int aRow) {
+            return _filter == null ? aRow : _filter.get(aRow);
+        }
+
+        private int rowCount() {
+            return _filter == null ? _model.size() : _filter.size();
+        }
+
+        @Override
+        public int getRowCount() {
+            return _rowCount;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int aColumn) {
+            return COLUMNS[aColumn];
+        }
+
+        @Override
+        public Object getValueAt(int aRow, int aColumn) {
+            int row = modelRow(aRow);
+            Violation violation = _model.violation(row);
+            switch (aColumn) {
+                case 0:
+                    return ViolationModel.severityName(violation.severity);
+                case 1:
+                    return _model.ruleName(row);
+                case 2:
+                    return _model.path(row);
+                case 3:
+                    return violation.line;
+                default:
+                    return violation.message;
+            }
+        }
+    }
+
+    private class LintProjectAction extends AnAction {
+        LintProjectAction() {
+            super("Lint Project", "Lint all Swift files of the project", AllIcons.Actions.Execute);
+        }
+
+        @Override
+        public void update(AnActionEvent aEvent) {
+            aEvent.getPresentation().setEnabled(!_running);
+        }
+
+        @Override
+        public void actionPerformed(AnActionEvent aEvent) {
+            lintProject();
+        }
+    }
+
+    private class ClearAction extends AnAction {
+        ClearAction() {
+            super("Clear", "Clear results", AllIcons.Actions.GC);
+        }
+
+        @Override
+        public void update(AnActionEvent aEvent) {
+            aEvent.getPresentation().setEnabled(!_running && _model.size() > 0);
+        }
+
+        @Override
+        public void actionPerformed(AnActionEvent aEvent) {
+            _model.clear();
+        }
+    }
+}
@@ -3,8 +3,8 @@ package com.lonelybytes.swiftlint;
 import com.intellij.notification.Notification;
 import com.intellij.notification.NotificationType;
 import com.intellij.notification.Notifications;
-import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
 import java.util.ArrayList;
@@ -12,62 +12,136 @@ import java.util.Arrays;
 import java.util.List;
 
 class Utils {
-    static String executeCommandOnFile(final String command, final String[] options, @NotNull final PsiFile file) throws IOException {
+    // Set by the command line runner, where there is no IDE to show notifications
+    static volatile boolean headless = false;
+
+    // "swiftlint lint" exits with 2 when it found violations of error severity; anything else but 0 is a failure
+    private static final int LINT_EXIT_VIOLATIONS = 2;
+    private static final int MAX_ERROR_OUTPUT_LENGTH = 16 * 1024;
+
+    static String executeCommand(final String command, final String[] options, @Nullable final String input) throws IOException {
+        return executeCommand(command, options, input, null);
+    }
+
+    // Whole output as a string; only for commands with short output such as the version, help or rules listing
+    static String executeCommand(final String command, final String[] options, @Nullable final String input, @Nullable final File workingDirectory) throws IOException {
+        try (LintOutput output = new LintOutput()) {
+            int exitCode = executeCommand(command, options, input, workingDirectory, output);
+            if (exitCode != 0) {
+                throw new IOException(command + " " + String.join(" ", options) + " failed with exit code " + exitCode);
+            }
+            return output.text();
+        }
+    }
+
+    // Throws unless a lint run completed, whether or not it found violations
+    static void checkLintExitCode(int aExitCode) throws IOException {
+        if (aExitCode != 0 && aExitCode != LINT_EXIT_VIOLATIONS) {
+            throw new IOException("SwiftLint failed with exit code " + aExitCode);
+        }
+    }
+
+    // Standard output goes to aOutput, which bounds its memory use; the caller closes it. Returns the exit code.
+    static int executeCommand(final String command, final String[] options, @Nullable final String input, @Nullable final File workingDirectory,
+                               @NotNull final LintOutput aOutput) throws IOException {
         List<String> parameters = new ArrayList<>();
         parameters.add(command);
         parameters.addAll(Arrays.asList(options));
 
-        final Process process = Runtime.getRuntime().exec(parameters.toArray(new String[0]));
+        final Process process = Runtime.getRuntime().exec(parameters.toArray(new String[0]), null, workingDirectory);
         BufferedWriter stdOut = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
-        stdOut.write(file.getText());
 
-        final StringBuilder outputStrings = new StringBuilder();
         final StringBuilder errorStrings = new StringBuilder();
+        // Set under aOutput's lock when the caller is interrupted; the readers stop after that
+        final boolean[] cancelled = { false };
+        // Both pipes are drained at the same time: a process blocked on a full stderr pipe never closes stdout
+        Thread outputThread = new Thread(() -> {
+            try (InputStream outputStream = process.getInputStream()) {
+                byte[] buffer = new byte[8 * 1024];
+                int read;
+                while ((read = outputStream.read(buffer)) != -1) {
+                    synchronized (aOutput) {
+                        if (cancelled[0]) {
+                            return;
+                        }
+                        aOutput.write(buffer, 0, read);
+                    }
+                }
+            } catch (IOException ex) {
+                if (!isCancelled(aOutput, cancelled)) {
+                    notifyError("IOException: " + ex.getMessage(), false);
+                    ex.printStackTrace();
+                }
+            }
+        });
         Thread errorThread = new Thread(() -> {
-            BufferedReader outputStream = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            BufferedReader errorStream = new BufferedReader(new InputStreamReader(process.getErrorStream()));
-
-            try {
+            try (BufferedReader errorStream = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
                 String line;
-                while ((line = outputStream.readLine()) != null) {
-                    outputStrings.append(line).append("\n");
-                }
-
                 while ((line = errorStream.readLine()) != null) {
+                    if (isCancelled(aOutput, cancelled)) {
+                        return;
+                    }
+                    // Only the interesting lines are kept, so arbitrarily long stderr output costs no memory
                     if (line.toLowerCase().contains("error") || line.toLowerCase().contains("warning") || line.toLowerCase().contains("invalid")) {
-                        errorStrings.append(line).append("\n");
+                        synchronized (errorStrings) {
+                            if (errorStrings.length() < MAX_ERROR_OUTPUT_LENGTH) {
+                                errorStrings.append(line).append("\n");
+                            }
+                        }
                     }
                 }
             } catch (IOException ex) {
-                Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "Error", "IOException: " + ex.getMessage(), NotificationType.INFORMATION));
-                ex.printStackTrace();
-            } finally {
-                try {
-                    outputStream.close();
-                    errorStream.close();
-                } catch (IOException ex) {
-                    Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "Error", "IOException: " + ex.getMessage(), NotificationType.INFORMATION));
+                if (!isCancelled(aOutput, cancelled)) {
                     ex.printStackTrace();
                 }
             }
         });
+        outputThread.start();
         errorThread.start();
 
-        stdOut.flush();
-        stdOut.close();
-
+        int exitCode;
         try {
+            if (input != null) {
+                stdOut.write(input);
+            }
+            stdOut.flush();
+            stdOut.close();
+            outputThread.join();
             errorThread.join();
-        } catch (InterruptedException ex) {
-            Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "Error", "IOException: " + ex.getMessage(), NotificationType.INFORMATION));
-            ex.printStackTrace();
+            exitCode = process.waitFor();
+        } catch (InterruptedException | InterruptedIOException ex) {
+            // The run was cancelled: its output is incomplete and must not be used
+            synchronized (aOutput) {
+                cancelled[0] = true;
+            }
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("SwiftLint run was cancelled");
         }
 
-        String errorString = errorStrings.toString().trim();
+        String errorString;
+        synchronized (errorStrings) {
+            errorString = errorStrings.toString().trim();
+        }
         if (!errorString.isEmpty()) {
-            Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "Error", "SwiftLint error: " + errorString, NotificationType.INFORMATION));
+            notifyError("SwiftLint error: " + errorString, false);
+        }
+
+        return exitCode;
+    }
+
+    private static boolean isCancelled(@NotNull LintOutput aOutput, @NotNull boolean[] aCancelled) {
+        synchronized (aOutput) {
+            return aCancelled[0];
+        }
+    }
+
+    static void notifyError(@NotNull String aMessage, boolean aShowAsError) {
+        if (headless) {
+            System.err.println(aMessage);
+            return;
         }
 
-        return outputStrings.toString();
+        Notifications.Bus.notify(new Notification(Configuration.KEY_SWIFTLINT, "Error", aMessage, aShowAsError ? NotificationType.ERROR : NotificationType.INFORMATION));
     }
 }
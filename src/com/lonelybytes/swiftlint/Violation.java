@@ -0,0 +1,194 @@
+package com.lonelybytes.swiftlint;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// One line of the "xcode" reporter output
+class Violation {
+    static final byte SEVERITY_WARNING = 0;
+    static final byte SEVERITY_ERROR = 1;
+    static final byte SEVERITY_OTHER = 2;
+
+    private static final Pattern ERRORS_PATTERN = Pattern.compile("^(\\S.*?):(?:(\\d+):)(?:(\\d+):)? (\\S+):([^\\(]*)\\((.*)\\)$");
+    private static final int LINE_MATCH_INDEX = 2;
+    private static final int COLUMN_MATCH_INDEX = 3;
+    private static final int SEVERITY_MATCH_INDEX = 4;
+    private static final int MESSAGE_MATCH_INDEX = 5;
+    private static final int ERROR_TYPE_MATCH_INDEX = 6;
+
+    // Pseudo rule of the summary that replaces violations beyond the per-file limit
+    static final String LIMIT_RULE = "violation_limit";
+    static final int MAX_PARSED_VIOLATIONS = 100_000;
+
+    // Document order; ties are broken by rule so the order doesn't depend on the reporter
+    static final Comparator<Violation> POSITION_ORDER = Comparator.<Violation>comparingInt(aViolation -> aViolation.line)
+            .thenComparingInt(aViolation -> aViolation.column)
+            .thenComparingInt(aViolation -> aViolation.ruleId);
+
+    // 1-based, as reported by SwiftLint; column is -1 when missing
+    final int line;
+    final int column;
+    final byte severity;
+    final int ruleId;
+    final String message;
+
+    Violation(int aLine, int aColumn, byte aSeverity, int aRuleId, String aMessage) {
+        line = aLine;
+        column = aColumn;
+        severity = aSeverity;
+        ruleId = aRuleId;
+        message = aMessage;
+    }
+
+    @Override
+    public boolean equals(Object aObject) {
+        if (this == aObject) {
+            return true;
+        }
+        if (!(aObject instanceof Violation)) {
+            return false;
+        }
+
+        Violation violation = (Violation) aObject;
+        return line == violation.line && column == violation.column && severity == violation.severity &&
+                ruleId == violation.ruleId && message.equals(violation.message);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = line;
+        result = 31 * result + column;
+        result = 31 * result + severity;
+        result = 31 * result + ruleId;
+        result = 31 * result + message.hashCode();
+        return result;
+    }
+
+    // Keeps the first MAX_PARSED_VIOLATIONS violations. Any beyond that are only counted by rule and reported as one
+    // summary violation, so a pathological file costs a bounded number of objects. The ceiling is fixed rather than
+    // configurable because parsed results are cached and shared; the configurable per-file limit is applied by limit().
+    @NotNull
+    static List<Violation> parse(@NotNull LintOutput aOutput, @NotNull RuleCatalog aCatalog) throws IOException {
+        int maxViolations = MAX_PARSED_VIOLATIONS;
+        List<Violation> result = new ArrayList<>();
+        Map<String, int[]> omitted = new HashMap<>();
+        int[] omittedCount = { 0 };
+
+        aOutput.forEachLine(aLine -> {
+            if (result.size() < maxViolations) {
+                Violation violation = parseLine(aLine, aCatalog);
+                if (violation != null) {
+                    result.add(violation);
+                }
+            } else {
+                String ruleName = ruleName(aLine);
+                if (ruleName != null) {
+                    omitted.computeIfAbsent(ruleName, aKey -> new int[1])[0]++;
+                    omittedCount[0]++;
+                }
+            }
+            return true;
+        });
+
+        if (omittedCount[0] > 0) {
+            result.add(limitSummary(omittedCount[0], omitted, maxViolations, aCatalog));
+        }
+
+        return result;
+    }
+
+    // The first aMaxViolations of aViolations and a summary of the rest. Applied to the violations that are reported,
+    // after the baseline filter, so baselined violations don't count against the limit.
+    @NotNull
+    static List<Violation> limit(@NotNull List<Violation> aViolations, int aMaxViolations, @NotNull RuleCatalog aCatalog) {
+        if (aViolations.size() <= aMaxViolations) {
+            return aViolations;
+        }
+
+        // A summary from parse() is kept as it is, it already stands for violations that aren't in the list
+        int limitRule = aCatalog.id(LIMIT_RULE);
+        List<Violation> result = new ArrayList<>(aMaxViolations + 2);
+        List<Violation> summaries = new ArrayList<>();
+        Map<String, int[]> omitted = new HashMap<>();
+        int omittedCount = 0;
+        for (Violation violation : aViolations) {
+            if (violation.ruleId == limitRule) {
+                summaries.add(violation);
+            } else if (result.size() < aMaxViolations) {
+                result.add(violation);
+            } else {
+                omitted.computeIfAbsent(String.valueOf(aCatalog.name(violation.ruleId)), aKey -> new int[1])[0]++;
+                omittedCount++;
+            }
+        }
+
+        if (omittedCount > 0) {
+            result.add(limitSummary(omittedCount, omitted, aMaxViolations, aCatalog));
+        }
+        result.addAll(summaries);
+        return result;
+    }
+
+    static Violation parseLine(@NotNull String aLine, @NotNull RuleCatalog aCatalog) {
+        if (!aLine.contains(":")) {
+            return null;
+        }
+
+        Matcher matcher = ERRORS_PATTERN.matcher(aLine);
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        int line = Integer.parseInt(matcher.group(LINE_MATCH_INDEX));
+        int column = matcher.group(COLUMN_MATCH_INDEX) == null ? -1 : Math.max(0, Integer.parseInt(matcher.group(COLUMN_MATCH_INDEX)));
+
+        return new Violation(
+                line,
+                column,
+                severityFromString(matcher.group(SEVERITY_MATCH_INDEX)),
+                aCatalog.id(matcher.group(ERROR_TYPE_MATCH_INDEX)),
+                RuleCatalog.intern(matcher.group(MESSAGE_MATCH_INDEX).trim())
+        );
+    }
+
+    // Rule of a reporter line without matching or decoding the rest of it
+    private static String ruleName(@NotNull String aLine) {
+        if (!aLine.endsWith(")") || !(aLine.contains(": warning:") || aLine.contains(": error:"))) {
+            return null;
+        }
+
+        int start = aLine.lastIndexOf('(');
+        return start < 0 ? null : aLine.substring(start + 1, aLine.length() - 1);
+    }
+
+    private static Violation limitSummary(int aOmittedCount, @NotNull Map<String, int[]> aOmitted, int aMaxViolations, @NotNull RuleCatalog aCatalog) {
+        List<Map.Entry<String, int[]>> rules = new ArrayList<>(aOmitted.entrySet());
+        rules.sort((aLeft, aRight) -> Integer.compare(aRight.getValue()[0], aLeft.getValue()[0]));
+
+        StringBuilder message = new StringBuilder();
+        message.append(aOmittedCount).append(" more violation(s) not shown, the limit is ").append(aMaxViolations).append(" per file:");
+        for (int i = 0; i < Math.min(5, rules.size()); i++) {
+            message.append(i == 0 ? " " : ", ").append(rules.get(i).getKey()).append(" ").append(rules.get(i).getValue()[0]);
+        }
+        if (rules.size() > 5) {
+            message.append(", ...");
+        }
+
+        return new Violation(1, -1, SEVERITY_WARNING, aCatalog.id(LIMIT_RULE), message.toString());
+    }
+
+    private static byte severityFromString(String aSeverity) {
+        switch (aSeverity.trim().toLowerCase()) {
+            case "error":
+                return SEVERITY_ERROR;
+            case "warning":
+                return SEVERITY_WARNING;
+            default:
+                return SEVERITY_OTHER;
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.ide.projectView.ProjectView;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.Alarm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Violation counts per severity and rule for every directory of the project, rolled up from the last lint result of
+// each file. A changed file result updates only the directories on its path, so an update costs O(depth).
+// Per-file counts are persisted in the IDE system directory next to the other SwiftLint caches; directory counts are
+// rebuilt from them on load, so project view decorations are available at startup before anything is linted.
+public class ViolationAggregateIndex implements Disposable {
+    private static final int MAGIC = 0x534c4131; // "SLA1"
+    private static final int SAVE_DELAY_MS = 5000;
+    private static final int REFRESH_DELAY_MS = 1000;
+    // Smallest persisted file entry (empty path, severities, rule count) and rule entry (empty name, count)
+    private static final int MIN_FILE_SIZE = 2 + 3 * 4 + 4;
+    private static final int MIN_RULE_SIZE = 2 + 4;
+
+    static class Counts {
+        final int[] severities = new int[3];
+        // Rule name to count; names rather than ids, ids depend on the SwiftLint version
+        final Map<String, Integer> rules = new HashMap<>();
+
+        int total() {
+            return severities[Violation.SEVERITY_WARNING] + severities[Violation.SEVERITY_ERROR] + severities[Violation.SEVERITY_OTHER];
+        }
+
+        void add(@NotNull Counts aCounts, int aSign) {
+            for (int i = 0; i < severities.length; i++) {
+                severities[i] += aSign * aCounts.severities[i];
+            }
+            for (Map.Entry<String, Integer> entry : aCounts.rules.entrySet()) {
+                rules.merge(entry.getKey(), aSign * entry.getValue(), (aLeft, aRight) -> aLeft + aRight == 0 ? null : aLeft + aRight);
+            }
+        }
+
+        @Override
+        public boolean equals(Object aObject) {
+            return aObject instanceof Counts && Arrays.equals(severities, ((Counts) aObject).severities) && rules.equals(((Counts) aObject).rules);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(severities) + rules.hashCode();
+        }
+    }
+
+    private final Project _project;
+    private final String _basePath;
+    private final File _file;
+
+    // Project-relative file path to its counts, and project-relative directory ("" for the root) to the sum of its files
+    private final Map<String, Counts> _files = new HashMap<>();
+    private final Map<String, Counts> _directories = new HashMap<>();
+
+    private final Alarm _saveAlarm;
+    private final Alarm _refreshAlarm;
+    private final AtomicBoolean _saveScheduled = new AtomicBoolean();
+    private final AtomicBoolean _refreshScheduled = new AtomicBoolean();
+    private volatile boolean _modified = false;
+
+    public ViolationAggregateIndex(@NotNull Project aProject) {
+        _project = aProject;
+        _basePath = aProject.getBasePath();
+        String systemPath = PathManager.getSystemPath();
+        _file = systemPath == null || _basePath == null ? null :
+                new File(new File(new File(systemPath, "swiftlint"), "aggregates"), aProject.getLocationHash());
+        _saveAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, aProject);
+        _refreshAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, aProject);
+
+        load();
+    }
+
+    static ViolationAggregateIndex getInstance(@NotNull Project aProject) {
+        return ServiceManager.getService(aProject, ViolationAggregateIndex.class);
+    }
+
+    // Follows moved and renamed files, drops results of files that were deleted or moved out of the project
+    void start() {
+        _project.getMessageBus().connect(_project).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void before(@NotNull List<? extends VFileEvent> aEvents) {
+            }
+
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> aEvents) {
+                for (VFileEvent event : aEvents) {
+                    VirtualFile file = event.getFile();
+                    if (event instanceof VFileMoveEvent) {
+                        VirtualFile oldParent = ((VFileMoveEvent) event).getOldParent();
+                        move(oldParent.getPath() + "/" + file.getName(), file.getPath());
+                    } else if (event instanceof VFilePropertyChangeEvent) {
+                        VFilePropertyChangeEvent propertyChange = (VFilePropertyChangeEvent) event;
+                        if (VirtualFile.PROP_NAME.equals(propertyChange.getPropertyName()) && file.getParent() != null) {
+                            String parentPath = file.getParent().getPath();
+                            move(parentPath + "/" + propertyChange.getOldValue(), parentPath + "/" + propertyChange.getNewValue());
+                        }
+                    } else {
+                        String path = relativePath(event.getPath());
+                        if (path != null && isIndexed(path) && !new File(event.getPath()).exists()) {
+                            removeUnder(path);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    // aViolations is the complete result for aFilePath, as reported to the user
+    void update(@NotNull String aFilePath, @NotNull List<Violation> aViolations, @NotNull RuleCatalog aCatalog) {
+        String path = relativePath(aFilePath);
+        if (path == null) {
+            return;
+        }
+
+        Counts counts = null;
+        if (!aViolations.isEmpty()) {
+            counts = new Counts();
+            for (Violation violation : aViolations) {
+                counts.severities[violation.severity]++;
+                counts.rules.merge(aCatalog.name(violation.ruleId), 1, Integer::sum);
+            }
+        }
+
+        synchronized (this) {
+            Counts previous = counts == null ? _files.remove(path) : _files.put(path, counts);
+            if (Objects.equals(previous, counts)) {
+                return;
+            }
+            rollUp(path, previous, counts);
+        }
+
+        changed();
+    }
+
+    void clear() {
+        synchronized (this) {
+            if (_files.isEmpty()) {
+                return;
+            }
+            _files.clear();
+            _directories.clear();
+        }
+
+        changed();
+    }
+
+    // Severity counts of a file or directory, indexed by Violation.SEVERITY_*; null when it has no violations
+    @Nullable
+    synchronized int[] severityCounts(@NotNull String aPath, boolean aDirectory) {
+        String path = relativePath(aPath);
+        Counts counts = path == null ? null : (aDirectory ? _directories : _files).get(path);
+        return counts == null ? null : counts.severities.clone();
+    }
+
+    // Directories with the most violations, each with its most frequent rules
+    @NotNull
+    synchronized String report(int aDirectoryLimit, int aRuleLimit) {
+        Counts total = _directories.get("");
+        if (total == null) {
+            return "No SwiftLint results yet";
+        }
+
+        StringBuilder result = new StringBuilder();
+        result.append(summary(total.severities)).append(" in ").append(_files.size()).append(" file(s)");
+
+        List<Map.Entry<String, Counts>> directories = new ArrayList<>();
+        for (Map.Entry<String, Counts> entry : _directories.entrySet()) {
+            if (!entry.getKey().isEmpty()) {
+                directories.add(entry);
+            }
+        }
+        directories.sort((aLeft, aRight) -> aLeft.getValue().total() != aRight.getValue().total() ?
+                Integer.compare(aRight.getValue().total(), aLeft.getValue().total()) : aLeft.getKey().compareTo(aRight.getKey()));
+
+        for (int i = 0; i < Math.min(aDirectoryLimit, directories.size()); i++) {
+            Counts counts = directories.get(i).getValue();
+            result.append("<br>").append(directories.get(i).getKey()).append(": ").append(summary(counts.severities));
+
+            List<Map.Entry<String, Integer>> rules = new ArrayList<>(counts.rules.entrySet());
+            rules.sort((aLeft, aRight) -> Integer.compare(aRight.getValue(), aLeft.getValue()));
+            for (int j = 0; j < Math.min(aRuleLimit, rules.size()); j++) {
+                result.append(j == 0 ? " (" : ", ").append(rules.get(j).getKey()).append(" ").append(rules.get(j).getValue());
+            }
+            result.append(rules.isEmpty() ? "" : rules.size() > aRuleLimit ? ", ...)" : ")");
+        }
+        if (directories.size() > aDirectoryLimit) {
+            result.append("<br>...");
+        }
+
+        return result.toString();
+    }
+
+    @NotNull
+    static String summary(@NotNull int[] aSeverities) {
+        List<String> parts = new ArrayList<>();
+        if (aSeverities[Violation.SEVERITY_ERROR] > 0) {
+            parts.add(aSeverities[Violation.SEVERITY_ERROR] + (aSeverities[Violation.SEVERITY_ERROR] == 1 ? " error" : " errors"));
+        }
+        if (aSeverities[Violation.SEVERITY_WARNING] > 0) {
+            parts.add(aSeverities[Violation.SEVERITY_WARNING] + (aSeverities[Violation.SEVERITY_WARNING] == 1 ? " warning" : " warnings"));
+        }
+        if (aSeverities[Violation.SEVERITY_OTHER] > 0) {
+            parts.add(aSeverities[Violation.SEVERITY_OTHER] + " other");
+        }
+        return String.join(", ", parts);
+    }
+
+    @Override
+    public void dispose() {
+        if (_modified) {
+            save();
+        }
+    }
+
+    private synchronized boolean isIndexed(@NotNull String aPath) {
+        return _files.containsKey(aPath) || _directories.containsKey(aPath);
+    }
+
+    private void removeUnder(@NotNull String aPath) {
+        synchronized (this) {
+            String prefix = aPath + "/";
+            List<String> removed = new ArrayList<>();
+            for (String path : _files.keySet()) {
+                if (path.equals(aPath) || path.startsWith(prefix)) {
+                    removed.add(path);
+                }
+            }
+            for (String path : removed) {
+                rollUp(path, _files.remove(path), null);
+            }
+        }
+
+        changed();
+    }
+
+    // Re-keys the results of a moved or renamed file or directory; they are dropped when it left the project
+    private void move(@NotNull String aOldPath, @NotNull String aNewPath) {
+        String oldPath = relativePath(aOldPath);
+        if (oldPath == null || !isIndexed(oldPath)) {
+            return;
+        }
+        String newPath = relativePath(aNewPath);
+        if (newPath == null || newPath.isEmpty()) {
+            removeUnder(oldPath);
+            return;
+        }
+
+        synchronized (this) {
+            String prefix = oldPath + "/";
+            Map<String, Counts> moved = new HashMap<>();
+            for (Map.Entry<String, Counts> entry : _files.entrySet()) {
+                if (entry.getKey().equals(oldPath) || entry.getKey().startsWith(prefix)) {
+                    moved.put(entry.getKey(), entry.getValue());
+                }
+            }
+            for (Map.Entry<String, Counts> entry : moved.entrySet()) {
+                _files.remove(entry.getKey());
+                rollUp(entry.getKey(), entry.getValue(), null);
+            }
+            for (Map.Entry<String, Counts> entry : moved.entrySet()) {
+                String path = newPath + entry.getKey().substring(oldPath.length());
+                rollUp(path, _files.put(path, entry.getValue()), entry.getValue());
+            }
+        }
+
+        changed();
+    }
+
+    // Replaces aPrevious with aCounts in every directory from the file's one up to the root
+    private void rollUp(@NotNull String aPath, @Nullable Counts aPrevious, @Nullable Counts aCounts) {
+        for (String directory = directory(aPath); directory != null; directory = parent(directory)) {
+            Counts counts = _directories.computeIfAbsent(directory, aKey -> new Counts());
+            if (aPrevious != null) {
+                counts.add(aPrevious, -1);
+            }
+            if (aCounts != null) {
+                counts.add(aCounts, 1);
+            }
+            if (counts.total() == 0) {
+                _directories.remove(directory);
+            }
+        }
+    }
+
+    // Saving and project view refreshes are throttled: a project-wide lint updates the index for every file
+    private void changed() {
+        _modified = true;
+
+        if (_saveScheduled.compareAndSet(false, true)) {
+            _saveAlarm.addRequest(() -> {
+                _saveScheduled.set(false);
+                save();
+            }, SAVE_DELAY_MS);
+        }
+
+        if (_refreshScheduled.compareAndSet(false, true)) {
+            _refreshAlarm.addRequest(() -> {
+                _refreshScheduled.set(false);
+                if (!_project.isDisposed()) {
+                    ProjectView.getInstance(_project).refresh();
+                }
+            }, REFRESH_DELAY_MS);
+        }
+    }
+
+    private void load() {
+        if (_file == null || !_file.isFile()) {
+            return;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(_file)))) {
+            if (input.readInt() != MAGIC) {
+                return;
+            }
+
+            int fileCount = readCount(input, MIN_FILE_SIZE);
+            synchronized (this) {
+                for (int i = 0; i < fileCount; i++) {
+                    String path = input.readUTF();
+                    Counts counts = new Counts();
+                    for (int j = 0; j < counts.severities.length; j++) {
+                        counts.severities[j] = readCount(input, 0);
+                    }
+                    int ruleCount = readCount(input, MIN_RULE_SIZE);
+                    for (int j = 0; j < ruleCount; j++) {
+                        String rule = RuleCatalog.intern(input.readUTF());
+                        int count = readCount(input, 0);
+                        if (count == 0) {
+                            throw new IOException("Malformed violation aggregates");
+                        }
+                        counts.rules.put(rule, count);
+                    }
+                    if (counts.total() == 0 || _files.containsKey(path)) {
+                        throw new IOException("Malformed violation aggregates");
+                    }
+
+                    _files.put(path, counts);
+                    rollUp(path, null, counts);
+                }
+            }
+        } catch (IOException ex) {
+            synchronized (this) {
+                _files.clear();
+                _directories.clear();
+            }
+        }
+    }
+
+    // A count followed by aMinItemSize bytes per item; rejects counts a truncated or corrupted file can't hold
+    private static int readCount(@NotNull DataInputStream aInput, int aMinItemSize) throws IOException {
+        int count = aInput.readInt();
+        if (count < 0 || (aMinItemSize > 0 && count > aInput.available() / aMinItemSize)) {
+            throw new IOException("Malformed violation aggregates");
+        }
+        return count;
+    }
+
+    private void save() {
+        if (_file == null) {
+            return;
+        }
+
+        File directory = _file.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            return;
+        }
+
+        File temporaryFile = new File(directory, _file.getName() + ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+                synchronized (this) {
+                    _modified = false;
+                    output.writeInt(MAGIC);
+                    output.writeInt(_files.size());
+                    for (Map.Entry<String, Counts> entry : _files.entrySet()) {
+                        output.writeUTF(entry.getKey());
+                        for (int count : entry.getValue().severities) {
+                            output.writeInt(count);
+                        }
+                        output.writeInt(entry.getValue().rules.size());
+                        for (Map.Entry<String, Integer> rule : entry.getValue().rules.entrySet()) {
+                            output.writeUTF(rule.getKey());
+                            output.writeInt(rule.getValue());
+                        }
+                    }
+                }
+            }
+            Files.move(temporaryFile.toPath(), _file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            _modified = true;
+            ex.printStackTrace();
+        }
+    }
+
+    @Nullable
+    private String relativePath(@NotNull String aPath) {
+        if (_basePath == null) {
+            return null;
+        }
+        if (aPath.equals(_basePath)) {
+            return "";
+        }
+        return aPath.startsWith(_basePath + "/") ? aPath.substring(_basePath.length() + 1) : null;
+    }
+
+    @NotNull
+    private static String directory(@NotNull String aPath) {
+        int separator = aPath.lastIndexOf('/');
+        return separator < 0 ? "" : aPath.substring(0, separator);
+    }
+
+    @Nullable
+    private static String parent(@NotNull String aDirectory) {
+        return aDirectory.isEmpty() ? null : directory(aDirectory);
+    }
+}
@@ -0,0 +1,229 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+// Existing violations recorded in <project>/.swiftlint-baseline, which are not reported. A violation is identified by
+// a 64-bit hash of its rule, project-relative file path, line content with whitespace collapsed and the index among
+// equal violations of the file, so it survives unrelated edits that move lines around.
+// The file holds the sorted hashes; lookups are binary searches.
+public class ViolationBaseline {
+    static final String FILE_NAME = ".swiftlint-baseline";
+
+    private static final int MAGIC = 0x534c4231; // "SLB1"
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long[] EMPTY = new long[0];
+
+    private final String _basePath;
+
+    private volatile long[] _fingerprints = EMPTY;
+    private volatile long _loadedModificationStamp = -1;
+
+    public ViolationBaseline(@NotNull Project aProject) {
+        this(aProject.getBasePath());
+    }
+
+    ViolationBaseline(@Nullable String aBasePath) {
+        _basePath = aBasePath;
+    }
+
+    static ViolationBaseline getInstance(@NotNull Project aProject) {
+        return ServiceManager.getService(aProject, ViolationBaseline.class);
+    }
+
+    @Nullable
+    File file() {
+        return _basePath == null ? null : new File(_basePath, FILE_NAME);
+    }
+
+    // aViolations without the ones in the baseline; aText is the linted content of aFilePath
+    @NotNull
+    List<Violation> filter(@NotNull String aFilePath, @NotNull CharSequence aText, @NotNull List<Violation> aViolations,
+                           @NotNull RuleCatalog aCatalog) {
+        long[] baseline = fingerprints();
+        if (baseline.length == 0 || aViolations.isEmpty()) {
+            return aViolations;
+        }
+
+        long[] fingerprints = fingerprints(relativePath(aFilePath), aText, aViolations, aCatalog);
+        List<Violation> result = new ArrayList<>();
+        for (int i = 0; i < fingerprints.length; i++) {
+            if (Arrays.binarySearch(baseline, fingerprints[i]) < 0) {
+                result.add(aViolations.get(i));
+            }
+        }
+        return result;
+    }
+
+    // Fingerprints of aViolations, in the same order
+    @NotNull
+    long[] fingerprints(@NotNull String aRelativePath, @NotNull CharSequence aText, @NotNull List<Violation> aViolations,
+                        @NotNull RuleCatalog aCatalog) {
+        int[] lineStarts = lineStarts(aText);
+        Map<Long, Integer> occurrences = new HashMap<>();
+
+        long[] result = new long[aViolations.size()];
+        for (int i = 0; i < result.length; i++) {
+            Violation violation = aViolations.get(i);
+
+            long hash = hash(FNV_OFFSET_BASIS, aCatalog.name(violation.ruleId));
+            hash = hash(hash, aRelativePath);
+            hash = hashNormalizedLine(hash, aText, lineStarts, violation.line - 1);
+
+            Integer occurrence = occurrences.merge(hash, 1, Integer::sum);
+            result[i] = hashInt(hash, occurrence);
+        }
+        return result;
+    }
+
+    @NotNull
+    String relativePath(@NotNull String aFilePath) {
+        return _basePath != null && aFilePath.startsWith(_basePath + "/") ? aFilePath.substring(_basePath.length() + 1) : aFilePath;
+    }
+
+    void save(@NotNull long[] aFingerprints) throws IOException {
+        File file = file();
+        if (file == null) {
+            return;
+        }
+
+        long[] fingerprints = aFingerprints.clone();
+        Arrays.sort(fingerprints);
+
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(fingerprints.length);
+            for (long fingerprint : fingerprints) {
+                output.writeLong(fingerprint);
+            }
+        }
+        Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        _fingerprints = fingerprints;
+        _loadedModificationStamp = file.lastModified();
+    }
+
+    int size() {
+        return fingerprints().length;
+    }
+
+    // Reloaded when the file changes, e.g. after a VCS update
+    @NotNull
+    private long[] fingerprints() {
+        File file = file();
+        long modificationStamp = file == null ? 0 : file.lastModified();
+        if (modificationStamp == _loadedModificationStamp) {
+            return _fingerprints;
+        }
+
+        long[] fingerprints = EMPTY;
+        if (modificationStamp != 0) {
+            try {
+                fingerprints = load(file);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+
+        _fingerprints = fingerprints;
+        _loadedModificationStamp = modificationStamp;
+        return fingerprints;
+    }
+
+    // A truncated, edited or otherwise malformed file is rejected as a whole and the baseline is treated as empty
+    @NotNull
+    private static long[] load(@NotNull File aFile) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(aFile)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Unknown baseline format: " + aFile.getPath());
+            }
+
+            int count = input.readInt();
+            if (count < 0 || aFile.length() != 8 + 8L * count) {
+                throw new IOException("Malformed baseline: " + aFile.getPath());
+            }
+
+            long[] result = new long[count];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = input.readLong();
+                if (i > 0 && result[i] < result[i - 1]) {
+                    throw new IOException("Malformed baseline: " + aFile.getPath());
+                }
+            }
+            return result;
+        }
+    }
+
+    @NotNull
+    private static int[] lineStarts(@NotNull CharSequence aText) {
+        int count = 1;
+        for (int i = 0; i < aText.length(); i++) {
+            if (aText.charAt(i) == '\n') {
+                count++;
+            }
+        }
+
+        int[] result = new int[count];
+        int line = 1;
+        for (int i = 0; i < aText.length(); i++) {
+            if (aText.charAt(i) == '\n') {
+                result[line++] = i + 1;
+            }
+        }
+        return result;
+    }
+
+    // Leading and trailing whitespace is dropped and inner runs count as one space
+    private static long hashNormalizedLine(long aHash, @NotNull CharSequence aText, @NotNull int[] aLineStarts, int aLine) {
+        long hash = aHash;
+        if (aLine >= 0 && aLine < aLineStarts.length) {
+            int end = aLine + 1 < aLineStarts.length ? aLineStarts[aLine + 1] : aText.length();
+            boolean pendingSpace = false;
+            boolean started = false;
+            for (int i = aLineStarts[aLine]; i < end; i++) {
+                char c = aText.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    pendingSpace = started;
+                    continue;
+                }
+
+                if (pendingSpace) {
+                    hash = hashChar(hash, ' ');
+                    pendingSpace = false;
+                }
+                hash = hashChar(hash, c);
+                started = true;
+            }
+        }
+        return hashChar(hash, '\0');
+    }
+
+    private static long hash(long aHash, @NotNull String aValue) {
+        long hash = aHash;
+        for (int i = 0; i < aValue.length(); i++) {
+            hash = hashChar(hash, aValue.charAt(i));
+        }
+        return hashChar(hash, '\0');
+    }
+
+    private static long hashInt(long aHash, int aValue) {
+        long hash = aHash;
+        for (int i = 0; i < 4; i++) {
+            hash = (hash ^ ((aValue >>> (i * 8)) & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long hashChar(long aHash, char aChar) {
+        return ((aHash ^ (aChar & 0xff)) * FNV_PRIME ^ (aChar >>> 8)) * FNV_PRIME;
+    }
+}
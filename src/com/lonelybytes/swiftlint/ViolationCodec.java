@@ -0,0 +1,138 @@
+package com.lonelybytes.swiftlint;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compact binary form of a lint result. Rule ids are process-local, so rules and messages are stored by name
+// in a string table.
+final class ViolationCodec {
+    private static final int MAGIC = 0x534C5631; // "SLV1"
+    // Smallest encoded sizes, used to reject counts that can't fit in the rest of a payload
+    private static final int MIN_STRING_SIZE = 2;
+    private static final int MIN_VIOLATION_SIZE = 5;
+
+    private ViolationCodec() {
+    }
+
+    // Throws when a string can't be encoded, a message over 64 KB in particular
+    @NotNull
+    static byte[] encode(@NotNull List<Violation> aViolations, @NotNull RuleCatalog aCatalog) throws IOException {
+        Map<String, Integer> stringIndexes = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int[] ruleIndexes = new int[aViolations.size()];
+        int[] messageIndexes = new int[aViolations.size()];
+
+        for (int i = 0; i < aViolations.size(); i++) {
+            Violation violation = aViolations.get(i);
+            ruleIndexes[i] = stringIndex(String.valueOf(aCatalog.name(violation.ruleId)), stringIndexes, strings);
+            messageIndexes[i] = stringIndex(violation.message, stringIndexes, strings);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + aViolations.size() * 8);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(MAGIC);
+
+            writeVarInt(output, strings.size());
+            for (String string : strings) {
+                output.writeUTF(string);
+            }
+
+            writeVarInt(output, aViolations.size());
+            for (int i = 0; i < aViolations.size(); i++) {
+                Violation violation = aViolations.get(i);
+                writeVarInt(output, violation.line);
+                writeVarInt(output, violation.column + 1);
+                output.writeByte(violation.severity);
+                writeVarInt(output, ruleIndexes[i]);
+                writeVarInt(output, messageIndexes[i]);
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+
+    // Payloads come from disk or from the network: every count, index and value is checked, and anything malformed
+    // is reported as an IOException
+    @NotNull
+    static List<Violation> decode(@NotNull byte[] aPayload, @NotNull RuleCatalog aCatalog) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(aPayload));
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Unknown lint result format");
+        }
+
+        int stringCount = readCount(input, MIN_STRING_SIZE);
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            strings[i] = RuleCatalog.intern(input.readUTF());
+        }
+
+        int violationCount = readCount(input, MIN_VIOLATION_SIZE);
+        List<Violation> result = new ArrayList<>(violationCount);
+        for (int i = 0; i < violationCount; i++) {
+            int line = readVarInt(input);
+            int column = readVarInt(input) - 1;
+            byte severity = input.readByte();
+            String rule = strings[readIndex(input, stringCount)];
+            String message = strings[readIndex(input, stringCount)];
+
+            if (line < 0 || column < -1 || severity < Violation.SEVERITY_WARNING || severity > Violation.SEVERITY_OTHER) {
+                throw new IOException("Malformed lint result");
+            }
+
+            result.add(new Violation(line, column, severity, aCatalog.id(rule), message));
+        }
+
+        return result;
+    }
+
+    private static int readCount(DataInputStream aInput, int aMinItemSize) throws IOException {
+        int count = readVarInt(aInput);
+        if (count < 0 || count > aInput.available() / aMinItemSize) {
+            throw new IOException("Malformed lint result");
+        }
+        return count;
+    }
+
+    private static int readIndex(DataInput aInput, int aCount) throws IOException {
+        int index = readVarInt(aInput);
+        if (index < 0 || index >= aCount) {
+            throw new IOException("Malformed lint result");
+        }
+        return index;
+    }
+
+    private static int stringIndex(String aString, Map<String, Integer> aIndexes, List<String> aStrings) {
+        Integer index = aIndexes.get(aString);
+        if (index == null) {
+            index = aStrings.size();
+            aStrings.add(aString);
+            aIndexes.put(aString, index);
+        }
+        return index;
+    }
+
+    private static void writeVarInt(DataOutput aOutput, int aValue) throws IOException {
+        while ((aValue & ~0x7F) != 0) {
+            aOutput.writeByte((aValue & 0x7F) | 0x80);
+            aValue >>>= 7;
+        }
+        aOutput.writeByte(aValue);
+    }
+
+    private static int readVarInt(DataInput aInput) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = aInput.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
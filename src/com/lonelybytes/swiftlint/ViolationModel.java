@@ -0,0 +1,188 @@
+package com.lonelybytes.swiftlint;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+// Violations shown in the SwiftLint tool window. Rows are only appended while a lint streams in, so group counts
+// and per-group row indexes are updated for the new rows only, and filtering by a group is a lookup.
+// Used from the event dispatch thread only.
+class ViolationModel {
+    enum Grouping {
+        RULE("Rule"), SEVERITY("Severity"), DIRECTORY("Directory");
+
+        final String displayName;
+
+        Grouping(String aDisplayName) {
+            displayName = aDisplayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    interface Listener {
+        void rowsAppended(int aFrom, int aTo);
+
+        void cleared();
+    }
+
+    // Growable list of row numbers
+    static class RowIndex {
+        private int[] _rows = new int[16];
+        private int _size;
+
+        void add(int aRow) {
+            if (_size == _rows.length) {
+                _rows = Arrays.copyOf(_rows, _size * 2);
+            }
+            _rows[_size++] = aRow;
+        }
+
+        int get(int aIndex) {
+            return _rows[aIndex];
+        }
+
+        int size() {
+            return _size;
+        }
+    }
+
+    private final String _basePath;
+    private RuleCatalog _catalog;
+    private final List<Listener> _listeners = new ArrayList<>();
+
+    private final List<String> _paths = new ArrayList<>();
+    private int[] _rowPaths = new int[1024];
+    private Violation[] _rows = new Violation[1024];
+    private int _size;
+
+    private final EnumMap<Grouping, Map<String, RowIndex>> _groups = new EnumMap<>(Grouping.class);
+    private final int[] _severityCounts = new int[3];
+
+    ViolationModel(@Nullable String aBasePath) {
+        _basePath = aBasePath;
+        for (Grouping grouping : Grouping.values()) {
+            _groups.put(grouping, new HashMap<>());
+        }
+    }
+
+    void addListener(@NotNull Listener aListener) {
+        _listeners.add(aListener);
+    }
+
+    void append(@NotNull List<ChangedFilesLinter.FileResult> aFiles) {
+        int from = _size;
+        for (ChangedFilesLinter.FileResult file : aFiles) {
+            if (file.violations.isEmpty()) {
+                continue;
+            }
+
+            int pathIndex = _paths.size();
+            String path = relativePath(file.path);
+            _paths.add(path);
+            RowIndex directoryRows = _groups.get(Grouping.DIRECTORY).computeIfAbsent(directory(path), aKey -> new RowIndex());
+
+            for (Violation violation : file.violations) {
+                int row = _size++;
+                if (row == _rows.length) {
+                    _rows = Arrays.copyOf(_rows, row * 2);
+                    _rowPaths = Arrays.copyOf(_rowPaths, row * 2);
+                }
+                _rows[row] = violation;
+                _rowPaths[row] = pathIndex;
+
+                _groups.get(Grouping.RULE).computeIfAbsent(_catalog.name(violation.ruleId), aKey -> new RowIndex()).add(row);
+                _groups.get(Grouping.SEVERITY).computeIfAbsent(severityName(violation.severity), aKey -> new RowIndex()).add(row);
+                directoryRows.add(row);
+                _severityCounts[violation.severity]++;
+            }
+        }
+
+        if (_size > from) {
+            for (Listener listener : _listeners) {
+                listener.rowsAppended(from, _size);
+            }
+        }
+    }
+
+    // Drops all rows; rule ids of the rows appended next are resolved with aCatalog
+    void clear(@NotNull RuleCatalog aCatalog) {
+        _catalog = aCatalog;
+        clear();
+    }
+
+    void clear() {
+        _paths.clear();
+        _rowPaths = new int[1024];
+        _rows = new Violation[1024];
+        _size = 0;
+        for (Map<String, RowIndex> groups : _groups.values()) {
+            groups.clear();
+        }
+        Arrays.fill(_severityCounts, 0);
+
+        for (Listener listener : _listeners) {
+            listener.cleared();
+        }
+    }
+
+    int size() {
+        return _size;
+    }
+
+    int severityCount(byte aSeverity) {
+        return _severityCounts[aSeverity];
+    }
+
+    @NotNull
+    Violation violation(int aRow) {
+        return _rows[aRow];
+    }
+
+    @NotNull
+    String ruleName(int aRow) {
+        return _catalog.name(_rows[aRow].ruleId);
+    }
+
+    // Project-relative
+    @NotNull
+    String path(int aRow) {
+        return _paths.get(_rowPaths[aRow]);
+    }
+
+    @NotNull
+    String absolutePath(int aRow) {
+        String path = path(aRow);
+        return _basePath == null || path.startsWith("/") ? path : _basePath + "/" + path;
+    }
+
+    @NotNull
+    Map<String, RowIndex> groups(@NotNull Grouping aGrouping) {
+        return Collections.unmodifiableMap(_groups.get(aGrouping));
+    }
+
+    @NotNull
+    static String severityName(byte aSeverity) {
+        switch (aSeverity) {
+            case Violation.SEVERITY_ERROR:
+                return "Error";
+            case Violation.SEVERITY_WARNING:
+                return "Warning";
+            default:
+                return "Other";
+        }
+    }
+
+    private String relativePath(@NotNull String aPath) {
+        return _basePath != null && aPath.startsWith(_basePath + "/") ? aPath.substring(_basePath.length() + 1) : aPath;
+    }
+
+    private static String directory(@NotNull String aPath) {
+        int separator = aPath.lastIndexOf('/');
+        return separator < 0 ? "." : aPath.substring(0, separator);
+    }
+}
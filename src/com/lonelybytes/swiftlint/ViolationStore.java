@@ -0,0 +1,92 @@
+package com.lonelybytes.swiftlint;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiPredicate;
+
+// Results of lints that run off the typing path: the full rule profile for expensive rules, merged into
+// the fast on-the-fly results, and complete results for files whose lint policy defers linting.
+public class ViolationStore {
+    // Full profile results with the document modification stamp they were linted at
+    private static class StampedViolations {
+        final long modificationStamp;
+        final List<Violation> violations;
+
+        StampedViolations(long aModificationStamp, List<Violation> aViolations) {
+            modificationStamp = aModificationStamp;
+            violations = aViolations;
+        }
+    }
+
+    private final ConcurrentMap<String, StampedViolations> _fullProfileViolations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, List<Violation>> _deferredViolations = new ConcurrentHashMap<>();
+
+    static ViolationStore getInstance(@NotNull Project aProject) {
+        return ServiceManager.getService(aProject, ViolationStore.class);
+    }
+
+    // null when the full profile hasn't been linted for this version of the document; results of another version
+    // would point at wrong lines
+    @Nullable
+    List<Violation> fullProfileViolations(@NotNull String aFilePath, long aModificationStamp) {
+        StampedViolations violations = _fullProfileViolations.get(aFilePath);
+        return violations == null || violations.modificationStamp != aModificationStamp ? null : violations.violations;
+    }
+
+    void putFullProfileViolations(@NotNull String aFilePath, long aModificationStamp, @NotNull List<Violation> aViolations) {
+        _fullProfileViolations.put(aFilePath, new StampedViolations(aModificationStamp, Collections.unmodifiableList(aViolations)));
+    }
+
+    // null when the deferred lint hasn't run yet; baseline violations are already filtered out
+    List<Violation> deferredViolations(@NotNull String aFilePath) {
+        return _deferredViolations.get(aFilePath);
+    }
+
+    void putDeferredViolations(@NotNull String aFilePath, @NotNull List<Violation> aViolations) {
+        _deferredViolations.put(aFilePath, Collections.unmodifiableList(aViolations));
+    }
+
+    void remove(@NotNull String aFilePath) {
+        _fullProfileViolations.remove(aFilePath);
+        _deferredViolations.remove(aFilePath);
+    }
+
+    void removeUnder(@NotNull String aDirectory) {
+        String prefix = aDirectory.endsWith("/") ? aDirectory : aDirectory + "/";
+        _fullProfileViolations.keySet().removeIf(aPath -> aPath.startsWith(prefix));
+        _deferredViolations.keySet().removeIf(aPath -> aPath.startsWith(prefix));
+    }
+
+    // Drops results matching aCondition (file path and violations); returns the paths of the dropped results
+    @NotNull
+    Set<String> removeIf(@NotNull BiPredicate<String, List<Violation>> aFullProfileCondition,
+                         @NotNull BiPredicate<String, List<Violation>> aDeferredCondition) {
+        Set<String> result = new HashSet<>();
+        for (Map.Entry<String, StampedViolations> entry : _fullProfileViolations.entrySet()) {
+            if (aFullProfileCondition.test(entry.getKey(), entry.getValue().violations) && _fullProfileViolations.remove(entry.getKey(), entry.getValue())) {
+                result.add(entry.getKey());
+            }
+        }
+        for (Map.Entry<String, List<Violation>> entry : _deferredViolations.entrySet()) {
+            if (aDeferredCondition.test(entry.getKey(), entry.getValue()) && _deferredViolations.remove(entry.getKey(), entry.getValue())) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    void clear() {
+        _fullProfileViolations.clear();
+        _deferredViolations.clear();
+    }
+}
@@ -0,0 +1,114 @@
+package com.lonelybytes.swiftlint;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+// Round-trips lint results through RemoteResultCache and a local ResultCacheServer
+public class ResultCacheServerTest {
+    private File _directory;
+    private ResultCacheServer _server;
+    private RemoteResultCache _cache;
+    private RuleCatalog _catalog;
+
+    @Before
+    public void setUp() throws IOException {
+        _directory = Files.createTempDirectory("swiftlint-cache-test").toFile();
+        _server = new ResultCacheServer(0, _directory);
+        _server.start();
+        _cache = new RemoteResultCache("http://localhost:" + _server.port() + "/");
+
+        // Without a binary the catalog falls back to the built-in rule list; headless keeps the probe error out of the IDE
+        Utils.headless = true;
+        _catalog = RuleCatalog.of(SwiftLintCapabilities.of(new File(_directory, "swiftlint").getPath()));
+    }
+
+    @After
+    public void tearDown() {
+        _cache.shutdown();
+        _server.stop();
+        File[] files = _directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        _directory.delete();
+    }
+
+    @Test
+    public void storedResultIsDecodedUnchanged() throws IOException {
+        List<Violation> violations = Arrays.asList(
+                new Violation(3, 5, Violation.SEVERITY_WARNING, _catalog.id("trailing_whitespace"), "Lines should not have trailing whitespace."),
+                new Violation(10, -1, Violation.SEVERITY_ERROR, _catalog.id("force_cast"), "Force casts should be avoided."),
+                new Violation(12, 1, Violation.SEVERITY_ERROR, _catalog.id("my_custom_rule"), "Custom rule violated."));
+        String key = key("let x = y as! Int");
+
+        _cache.putAsync(key, ViolationCodec.encode(violations, _catalog));
+        _cache.shutdownAndWait(5000);
+
+        byte[] payload = _cache.get(key);
+        assertNotNull(payload);
+        assertEquals(violations, ViolationCodec.decode(payload, _catalog));
+    }
+
+    @Test
+    public void emptyResultIsStored() throws IOException {
+        String key = key("");
+
+        _cache.putAsync(key, ViolationCodec.encode(Collections.emptyList(), _catalog));
+        _cache.shutdownAndWait(5000);
+
+        byte[] payload = _cache.get(key);
+        assertNotNull(payload);
+        assertTrue(ViolationCodec.decode(payload, _catalog).isEmpty());
+    }
+
+    @Test
+    public void missingResultIsNull() throws IOException {
+        assertNull(_cache.get(key("missing")));
+
+        // A miss isn't a connection failure: the cache stays enabled
+        String key = key("stored");
+        Files.write(new File(_directory, key).toPath(), ViolationCodec.encode(Collections.emptyList(), _catalog));
+        assertNotNull(_cache.get(key));
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptPayloadIsRejected() throws IOException {
+        String key = key("corrupt");
+        Files.write(new File(_directory, key).toPath(), "not a lint result".getBytes(StandardCharsets.UTF_8));
+
+        byte[] payload = _cache.get(key);
+        assertNotNull(payload);
+        ViolationCodec.decode(payload, _catalog);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedPayloadIsRejected() throws IOException {
+        List<Violation> violations = Arrays.asList(new Violation(1, 1, Violation.SEVERITY_WARNING, _catalog.id("colon"), "Colon spacing"));
+        byte[] encoded = ViolationCodec.encode(violations, _catalog);
+        String key = key("truncated");
+        Files.write(new File(_directory, key).toPath(), Arrays.copyOf(encoded, encoded.length - 2));
+
+        byte[] payload = _cache.get(key);
+        assertNotNull(payload);
+        ViolationCodec.decode(payload, _catalog);
+    }
+
+    private static String key(String aText) {
+        return ResultCache.key(aText, "config", "test");
+    }
+}